@@ -1,11 +1,16 @@
 package cl.duoc.finance_bff_web;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
+import cl.duoc.finance_bff_web.config.FormatoWire;
+
 /**
  * Clase principal de la aplicacion Finance BFF Web.
  *
@@ -18,12 +23,14 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  * - Autenticacion JWT para clientes web con rol CLIENTE_WEB
  * - Agregacion de datos de cuentas y transacciones desde finance-batch
  * - Comunicacion HTTPS segura (puerto 8081)
+ * - Limitacion de tasa por cliente (tareas programadas de limpieza)
  *
  * @author Desarrollo DUOC
  * @version 0.0.1-SNAPSHOT
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 public class FinanceBffWebApplication {
 
     public static void main(String[] args) {
@@ -41,11 +48,33 @@ public class FinanceBffWebApplication {
      * hacia los microservicios backend (finance-batch en puerto 8080).
      *
      * Se inyecta en FinanceWebServiceImpl para las consultas a la API REST.
+     * RestTemplate ya registra los convertidores CBOR y Smile cuando sus
+     * dependencias estan en el classpath; si backend.wire-format pide uno que
+     * falta, se agrega. El formato lo decide el header Accept y el
+     * Content-Type de la respuesta, por lo que JSON se mantiene como respaldo.
+     *
+     * Los timeouts de conexion y lectura acotan cuanto puede quedar bloqueado
+     * un hilo de financeExecutor si finance-batch deja de responder.
      *
-     * @return instancia de RestTemplate configurada por defecto
+     * @param formato          Formato de serializacion hacia finance-batch (json, cbor, smile)
+     * @param connectTimeoutMs Timeout de conexion en milisegundos (backend.connect-timeout)
+     * @param readTimeoutMs    Timeout de lectura en milisegundos (backend.read-timeout)
+     * @return instancia de RestTemplate configurada
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${backend.wire-format:json}") String formato,
+            @Value("${backend.connect-timeout:2000}") int connectTimeoutMs,
+            @Value("${backend.read-timeout:5000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeoutMs);
+        factory.setReadTimeout(readTimeoutMs);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        FormatoWire formatoWire = FormatoWire.desde(formato);
+        boolean registrado = restTemplate.getMessageConverters().stream()
+                .anyMatch(convertidor -> convertidor.getSupportedMediaTypes().contains(formatoWire.getMediaType()));
+        if (!registrado) {
+            restTemplate.getMessageConverters().add(formatoWire.crearConvertidor());
+        }
+        return restTemplate;
     }
 }
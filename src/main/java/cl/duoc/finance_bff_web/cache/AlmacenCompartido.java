@@ -0,0 +1,42 @@
+package cl.duoc.finance_bff_web.cache;
+
+import java.time.Duration;
+
+/**
+ * Almacen clave-valor compartido entre las replicas del BFF (segundo nivel de cache).
+ *
+ * Es el punto de extension para conectar un almacen externo (ej: Redis,
+ * Memcached o Hazelcast): basta con registrar un bean que implemente esta
+ * interfaz. Los valores son bytes ya serializados por ResumenCodec, de modo
+ * que la implementacion no necesita conocer los DTOs.
+ *
+ * Implementacion incluida: {@link AlmacenCompartidoEnMemoria}
+ */
+public interface AlmacenCompartido {
+
+    /**
+     * @param clave Clave versionada (ej: "resumen:v1:42")
+     * @return Valor guardado, o null si no existe o expiro
+     */
+    byte[] obtener(String clave);
+
+    /**
+     * @param clave Clave versionada
+     * @param valor Valor serializado
+     * @param ttl   Tiempo de vida de la entrada
+     */
+    void guardar(String clave, byte[] valor, Duration ttl);
+
+    /**
+     * @param clave Clave versionada a eliminar
+     */
+    void eliminar(String clave);
+
+    /**
+     * @return true si todas las replicas ven el mismo almacen (ej: Redis);
+     *         false si cada proceso tiene el suyo (almacen embebido)
+     */
+    default boolean esEntreProcesos() {
+        return true;
+    }
+}
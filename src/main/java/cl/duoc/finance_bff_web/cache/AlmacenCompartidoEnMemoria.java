@@ -0,0 +1,109 @@
+package cl.duoc.finance_bff_web.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementacion embebida en memoria de AlmacenCompartido.
+ *
+ * Pensada para desarrollo y pruebas: permite ejercitar el flujo completo de
+ * la cache de dos niveles (serializacion, claves versionadas, expiracion)
+ * sin infraestructura externa. Se activa con bff.cache.shared.type=memory.
+ * Cada proceso tiene su propio almacen, por lo que para las demas replicas
+ * se comporta como una cache local (esEntreProcesos() = false).
+ *
+ * La memoria queda acotada: las entradas expiradas se eliminan
+ * periodicamente y, al llegar a bff.cache.shared.max-entries, se eliminan
+ * primero las expiradas y luego la decima parte mas proxima a expirar.
+ */
+@Component
+@ConditionalOnProperty(name = "bff.cache.shared.type", havingValue = "memory")
+public class AlmacenCompartidoEnMemoria implements AlmacenCompartido {
+
+    private final int maxEntradas;
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicBoolean liberando = new AtomicBoolean();
+
+    public AlmacenCompartidoEnMemoria(@Value("${bff.cache.shared.max-entries:10000}") int maxEntradas) {
+        this.maxEntradas = maxEntradas;
+    }
+
+    @Override
+    public boolean esEntreProcesos() {
+        return false;
+    }
+
+    @Override
+    public byte[] obtener(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expira < System.currentTimeMillis()) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.valor;
+    }
+
+    @Override
+    public void guardar(String clave, byte[] valor, Duration ttl) {
+        if (entradas.size() >= maxEntradas && !entradas.containsKey(clave)) {
+            liberarEspacio();
+        }
+        entradas.put(clave, new Entrada(valor, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void eliminar(String clave) {
+        entradas.remove(clave);
+    }
+
+    public int getTamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Elimina periodicamente las entradas expiradas que nadie volvio a leer.
+     */
+    @Scheduled(fixedDelayString = "${bff.cache.shared.purge-interval:60000}")
+    public void eliminarExpiradas() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(e -> e.expira < ahora);
+    }
+
+    /**
+     * Elimina las entradas expiradas; si sigue lleno, elimina la decima
+     * parte de las entradas mas proximas a expirar. Solo un hilo hace la
+     * limpieza a la vez.
+     */
+    private void liberarEspacio() {
+        if (!liberando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            eliminarExpiradas();
+            if (entradas.size() < maxEntradas) {
+                return;
+            }
+            entradas.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().expira, b.getValue().expira))
+                    .limit(Math.max(1, maxEntradas / 10))
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entradas::remove);
+        } finally {
+            liberando.set(false);
+        }
+    }
+
+    private record Entrada(byte[] valor, long expira) {
+    }
+}
@@ -0,0 +1,240 @@
+package cl.duoc.finance_bff_web.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import cl.duoc.finance_bff_web.kafka.InvalidacionCacheProducer;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+/**
+ * Cache de dos niveles de resumenes de cuenta (ResumenWebDTO).
+ *
+ * - Nivel 1 (cercano): mapa en memoria de este proceso, con expiracion y
+ *   acotado por numero de entradas y por bytes. Cada entrada se guarda
+ *   serializada con ResumenCodec, asi su tamano se conoce y cada lectura
+ *   entrega una copia nueva que el llamador puede modificar sin afectar a
+ *   la cache. Al superar un limite se eliminan primero las entradas
+ *   expiradas y, si no alcanza, las mas antiguas.
+ * - Nivel 2 (compartido, opcional): AlmacenCompartido comun a todas las
+ *   replicas, con valores serializados por ResumenCodec bajo claves
+ *   versionadas. Asi la tasa de aciertos no baja al agregar replicas.
+ *
+ * Al invalidar una cuenta se elimina de ambos niveles y, si
+ * bff.cache.invalidation.enabled=true, se publica la invalidacion por Kafka
+ * para que las demas replicas descarten su copia cercana. Para refrescar
+ * una cuenta (ej: tras el batch) no se invalida: guardar() sobrescribe ambos
+ * niveles y avisarActualizacion() solo descarta las copias cercanas de las
+ * demas replicas, que vuelven a leer el nivel compartido ya actualizado.
+ *
+ * Solo se guardan consultas exitosas (con datos de cuenta). Un fallo del
+ * almacen compartido nunca interrumpe la consulta: se trata como un fallo de cache.
+ *
+ * Configuracion (application.properties):
+ * - bff.cache.ttl: tiempo de vida en el nivel cercano (ms)
+ * - bff.cache.max-entries: numero maximo de cuentas en el nivel cercano
+ * - bff.cache.max-bytes: memoria maxima del nivel cercano (ej: 32MB)
+ * - bff.cache.shared.type: none (sin nivel compartido) o memory (embebido,
+ *   propio de cada proceso: no cuenta como nivel compartido entre replicas)
+ * - bff.cache.shared.ttl: tiempo de vida en el nivel compartido (ms)
+ */
+@Component
+public class ResumenCache {
+
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final long maxBytes;
+    private final ConcurrentHashMap<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    /** Suma de los bytes de todas las entradas del nivel cercano */
+    private final AtomicLong bytesTotales = new AtomicLong();
+
+    private final AlmacenCompartido compartido;
+    private final Duration ttlCompartido;
+    private final ObjectProvider<InvalidacionCacheProducer> invalidaciones;
+
+    public ResumenCache(
+            @Value("${bff.cache.ttl:60000}") long ttlMs,
+            @Value("${bff.cache.max-entries:5000}") int maxEntradas,
+            @Value("${bff.cache.max-bytes:32MB}") DataSize maxBytes,
+            @Value("${bff.cache.shared.ttl:300000}") long ttlCompartidoMs,
+            ObjectProvider<AlmacenCompartido> compartido,
+            ObjectProvider<InvalidacionCacheProducer> invalidaciones) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntradas = maxEntradas;
+        this.maxBytes = maxBytes.toBytes();
+        this.ttlCompartido = Duration.ofMillis(ttlCompartidoMs);
+        this.compartido = compartido.getIfAvailable();
+        this.invalidaciones = invalidaciones;
+    }
+
+    /**
+     * Obtiene el resumen en cache de una cuenta: primero el nivel cercano
+     * y, si no esta, el almacen compartido (que ademas llena el nivel cercano).
+     *
+     * @param id Identificador de la cuenta
+     * @return Copia del resumen en cache, o null si no existe o expiro
+     */
+    public ResumenWebDTO obtener(Long id) {
+        Entrada entrada = entradas.get(id);
+        if (entrada != null) {
+            if (System.nanoTime() - entrada.creada <= ttlNanos) {
+                return ResumenCodec.deserializar(entrada.datos);
+            }
+            quitar(id, entrada);
+        }
+        if (compartido == null) {
+            return null;
+        }
+        try {
+            byte[] datos = compartido.obtener(ResumenCodec.clave(id));
+            ResumenWebDTO resumen = datos == null ? null : ResumenCodec.deserializar(datos);
+            if (resumen != null) {
+                guardarLocal(id, datos);
+            }
+            return resumen;
+        } catch (RuntimeException e) {
+            System.err.println("Error leyendo cache compartida: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Guarda el resumen de una cuenta en ambos niveles.
+     *
+     * @param id      Identificador de la cuenta
+     * @param resumen Resumen obtenido desde finance-batch
+     */
+    public void guardar(Long id, ResumenWebDTO resumen) {
+        byte[] datos = ResumenCodec.serializar(resumen);
+        guardarLocal(id, datos);
+        if (compartido == null) {
+            return;
+        }
+        try {
+            compartido.guardar(ResumenCodec.clave(id), datos, ttlCompartido);
+        } catch (RuntimeException e) {
+            System.err.println("Error escribiendo cache compartida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina el resumen de una cuenta (ej: tras una ejecucion del batch)
+     * en ambos niveles y avisa a las demas replicas.
+     */
+    public void invalidar(Long id) {
+        invalidarLocal(id);
+        if (compartido != null) {
+            try {
+                compartido.eliminar(ResumenCodec.clave(id));
+            } catch (RuntimeException e) {
+                System.err.println("Error invalidando cache compartida: " + e.getMessage());
+            }
+        }
+        avisarActualizacion(id);
+    }
+
+    /**
+     * Avisa a las demas replicas que descarten su copia cercana de una cuenta
+     * (el nivel compartido ya tiene el valor nuevo o fue eliminado).
+     */
+    public void avisarActualizacion(Long id) {
+        InvalidacionCacheProducer producer = invalidaciones.getIfAvailable();
+        if (producer != null) {
+            producer.publicarInvalidacion(id);
+        }
+    }
+
+    /**
+     * @return true si hay un nivel compartido entre replicas (no basta el
+     *         almacen embebido, que es propio de cada proceso)
+     */
+    public boolean tieneCompartido() {
+        return compartido != null && compartido.esEntreProcesos();
+    }
+
+    /**
+     * Elimina solo la copia cercana (invalidacion recibida de otra replica).
+     */
+    public void invalidarLocal(Long id) {
+        Entrada entrada = entradas.get(id);
+        if (entrada != null) {
+            quitar(id, entrada);
+        }
+    }
+
+    /**
+     * Elimina todos los resumenes del nivel cercano.
+     */
+    public void invalidarTodo() {
+        entradas.forEach(this::quitar);
+    }
+
+    private void guardarLocal(Long id, byte[] datos) {
+        if (datos.length > maxBytes) {
+            // Un resumen mayor que todo el nivel cercano solo queda en el compartido
+            invalidarLocal(id);
+            return;
+        }
+        Entrada anterior = entradas.put(id, new Entrada(datos, System.nanoTime()));
+        bytesTotales.addAndGet(datos.length - (anterior == null ? 0 : anterior.datos.length));
+        if (entradas.size() > maxEntradas || bytesTotales.get() > maxBytes) {
+            liberarEspacio();
+        }
+    }
+
+    public int getTamano() {
+        return entradas.size();
+    }
+
+    public long getBytesTotales() {
+        return bytesTotales.get();
+    }
+
+    /**
+     * Elimina las entradas expiradas; si la cache sigue sobre un limite,
+     * elimina las mas antiguas hasta quedar en el 90% de ambos limites
+     * (asi las siguientes inserciones no vuelven a ordenar el mapa).
+     */
+    private void liberarEspacio() {
+        long ahora = System.nanoTime();
+        entradas.forEach((id, entrada) -> {
+            if (ahora - entrada.creada > ttlNanos) {
+                quitar(id, entrada);
+            }
+        });
+        if (entradas.size() <= maxEntradas && bytesTotales.get() <= maxBytes) {
+            return;
+        }
+        int objetivoEntradas = maxEntradas - maxEntradas / 10;
+        long objetivoBytes = maxBytes - maxBytes / 10;
+        Iterator<Map.Entry<Long, Entrada>> masAntiguas = entradas.entrySet().stream()
+                .sorted((a, b) -> Long.compare(a.getValue().creada, b.getValue().creada))
+                .toList()
+                .iterator();
+        while (masAntiguas.hasNext() && (entradas.size() > objetivoEntradas || bytesTotales.get() > objetivoBytes)) {
+            Map.Entry<Long, Entrada> e = masAntiguas.next();
+            quitar(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Elimina la entrada si sigue siendo la indicada y descuenta sus bytes.
+     */
+    private void quitar(Long id, Entrada entrada) {
+        if (entradas.remove(id, entrada)) {
+            bytesTotales.addAndGet(-entrada.datos.length);
+        }
+    }
+
+    private record Entrada(byte[] datos, long creada) {
+    }
+}
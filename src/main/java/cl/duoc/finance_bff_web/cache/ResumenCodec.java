@@ -0,0 +1,200 @@
+package cl.duoc.finance_bff_web.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import cl.duoc.finance_bff_web.model.CuentaDTO;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+/**
+ * Serializacion binaria compacta de ResumenWebDTO para el almacen compartido.
+ *
+ * Formato (DataOutputStream, big-endian):
+ * - 1 byte con la VERSION del formato
+ * - Campos en orden fijo; los campos opcionales llevan un byte de presencia
+ * - Strings como largo (int, -1 = null) + bytes UTF-8
+ * - Fechas como epoch-day (LocalDate) o epoch-day + nano del dia (LocalDateTime)
+ *
+ * La version tambien forma parte de la clave ({@link #clave(Long)}), por lo
+ * que al cambiar el formato las replicas nuevas y antiguas no leen entradas
+ * que no entienden.
+ *
+ * Versiones:
+ * - 1: formato inicial
+ * - 2: agrega el campo desactualizado
+ *
+ * El campo contingencia no se serializa: solo lo tienen los resumenes del
+ * fallback, que nunca se guardan en cache.
+ */
+public final class ResumenCodec {
+
+    /** Version actual del formato binario */
+    public static final int VERSION = 2;
+
+    private ResumenCodec() {
+    }
+
+    /**
+     * @param id Identificador de la cuenta
+     * @return Clave versionada del resumen en el almacen compartido
+     */
+    public static String clave(Long id) {
+        return "resumen:v" + VERSION + ":" + id;
+    }
+
+    public static byte[] serializar(ResumenWebDTO resumen) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            escribirString(out, resumen.getMensaje());
+            escribirFechaHora(out, resumen.getFechaConsulta());
+            out.writeBoolean(resumen.isDesactualizado());
+
+            CuentaDTO cuenta = resumen.getCuenta();
+            out.writeBoolean(cuenta != null);
+            if (cuenta != null) {
+                escribirLong(out, cuenta.getId());
+                escribirLong(out, cuenta.getCuentaId());
+                escribirString(out, cuenta.getNombre());
+                escribirDouble(out, cuenta.getSaldo());
+                escribirLong(out, cuenta.getEdad() == null ? null : cuenta.getEdad().longValue());
+                escribirString(out, cuenta.getTipo());
+                escribirDouble(out, cuenta.getInteresAplicado());
+            }
+
+            List<EstadoFinancieroDTO> movimientos = resumen.getMovimientos();
+            out.writeInt(movimientos == null ? -1 : movimientos.size());
+            if (movimientos != null) {
+                for (EstadoFinancieroDTO mov : movimientos) {
+                    escribirLong(out, mov.getId());
+                    escribirLong(out, mov.getCuentaId());
+                    escribirLong(out, mov.getFecha() == null ? null : mov.getFecha().toEpochDay());
+                    escribirString(out, mov.getTransaccion());
+                    escribirDouble(out, mov.getMonto());
+                    escribirString(out, mov.getDescripcion());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param datos Bytes generados por {@link #serializar(ResumenWebDTO)}
+     * @return Resumen deserializado, o null si la version no coincide
+     */
+    public static ResumenWebDTO deserializar(byte[] datos) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos))) {
+            if (in.readUnsignedByte() != VERSION) {
+                return null;
+            }
+            ResumenWebDTO resumen = new ResumenWebDTO();
+            resumen.setMensaje(leerString(in));
+            resumen.setFechaConsulta(leerFechaHora(in));
+            resumen.setDesactualizado(in.readBoolean());
+
+            if (in.readBoolean()) {
+                CuentaDTO cuenta = new CuentaDTO();
+                cuenta.setId(leerLong(in));
+                cuenta.setCuentaId(leerLong(in));
+                cuenta.setNombre(leerString(in));
+                cuenta.setSaldo(leerDouble(in));
+                Long edad = leerLong(in);
+                cuenta.setEdad(edad == null ? null : edad.intValue());
+                cuenta.setTipo(leerString(in));
+                cuenta.setInteresAplicado(leerDouble(in));
+                resumen.setCuenta(cuenta);
+            }
+
+            int cantidad = in.readInt();
+            if (cantidad >= 0) {
+                List<EstadoFinancieroDTO> movimientos = new ArrayList<>(cantidad);
+                for (int i = 0; i < cantidad; i++) {
+                    EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+                    mov.setId(leerLong(in));
+                    mov.setCuentaId(leerLong(in));
+                    Long dia = leerLong(in);
+                    mov.setFecha(dia == null ? null : LocalDate.ofEpochDay(dia));
+                    mov.setTransaccion(leerString(in));
+                    mov.setMonto(leerDouble(in));
+                    mov.setDescripcion(leerString(in));
+                    movimientos.add(mov);
+                }
+                resumen.setMovimientos(movimientos);
+            }
+            return resumen;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribirString(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String leerString(DataInputStream in) throws IOException {
+        int largo = in.readInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void escribirLong(DataOutputStream out, Long valor) throws IOException {
+        out.writeBoolean(valor != null);
+        if (valor != null) {
+            out.writeLong(valor);
+        }
+    }
+
+    private static Long leerLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void escribirDouble(DataOutputStream out, Double valor) throws IOException {
+        out.writeBoolean(valor != null);
+        if (valor != null) {
+            out.writeDouble(valor);
+        }
+    }
+
+    private static Double leerDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void escribirFechaHora(DataOutputStream out, LocalDateTime valor) throws IOException {
+        out.writeBoolean(valor != null);
+        if (valor != null) {
+            out.writeLong(valor.toLocalDate().toEpochDay());
+            out.writeLong(valor.toLocalTime().toNanoOfDay());
+        }
+    }
+
+    private static LocalDateTime leerFechaHora(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        LocalDate fecha = LocalDate.ofEpochDay(in.readLong());
+        return fecha.atTime(LocalTime.ofNanoOfDay(in.readLong()));
+    }
+}
@@ -0,0 +1,166 @@
+package cl.duoc.finance_bff_web.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuracion del pool de hilos acotado para las consultas al Core.
+ *
+ * Las peticiones a /bff/web/v1/cuentas/{id} ya no bloquean un hilo de Tomcat:
+ * el controlador delega el trabajo a este executor y retorna un CompletableFuture.
+ * El pool tiene tantos hilos fijos como el limite maximo del limitador
+ * adaptativo (bff.concurrency.max-limit), que es quien decide cuantas
+ * consultas entran: toda consulta admitida encuentra un hilo libre sin
+ * esperar en cola, y la latencia que mide el limitador es solo la del Core.
+ * La cola pequena solo absorbe el instante en que un hilo ya libero su cupo
+ * pero aun no vuelve al pool; si aun asi se llena, el executor rechaza la
+ * tarea (TaskRejectedException) en lugar de crecer sin limite.
+ *
+ * Las exportaciones de movimientos (StreamingResponseBody) usan un segundo
+ * pool, pequeno y separado, para que las descargas largas no compitan con
+ * las consultas de resumen.
+ *
+ * Configuracion (application.properties):
+ * - bff.concurrency.max-limit: hilos del pool (igual al limite maximo del limitador)
+ * - bff.executor.queue-capacity: tareas en espera antes de rechazar
+ * - bff.export.max-concurrent: exportaciones simultaneas
+ * - bff.export.queue-capacity: exportaciones en espera antes de rechazar
+ * - bff.audit.queue-capacity: registros de auditoria en espera antes de descartar
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor acotado usado por FinanceWebController.
+     *
+     * Propaga al hilo de trabajo el contexto de la peticion (headers) y el
+     * SecurityContext, necesarios para el token relay en FinanceWebServiceImpl.
+     * Los hilos inactivos se liberan, asi el pool solo ocupa memoria con carga.
+     *
+     * @return ThreadPoolTaskExecutor de tamano fijo con cola pequena
+     */
+    @Bean
+    public ThreadPoolTaskExecutor financeExecutor(
+            @Value("${bff.concurrency.max-limit:64}") int hilos,
+            @Value("${bff.executor.queue-capacity:8}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("finance-core-");
+        executor.setTaskDecorator(contextoDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor acotado para las respuestas asincronas de Spring MVC
+     * (exportaciones en streaming).
+     *
+     * @return ThreadPoolTaskExecutor para StreamingResponseBody
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${bff.export.max-concurrent:4}") int maxConcurrentes,
+            @Value("${bff.export.queue-capacity:8}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentes);
+        executor.setMaxPoolSize(maxConcurrentes);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("finance-export-");
+        executor.setTaskDecorator(contextoDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor de un hilo para la auditoria en Kafka (AuditoriaProducer).
+     *
+     * KafkaTemplate.send puede bloquear hasta max.block.ms esperando la
+     * metadata del topico si Kafka no esta disponible; con este executor
+     * ese bloqueo nunca ocurre en un hilo de Tomcat ni de financeExecutor.
+     * Si la cola se llena, el registro se descarta.
+     *
+     * @return ThreadPoolTaskExecutor para la auditoria
+     */
+    @Bean
+    public ThreadPoolTaskExecutor auditoriaExecutor(
+            @Value("${bff.audit.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("finance-audit-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor de un hilo para el refresco de la cache tras el batch
+     * (WarmupService.precalentarTrasBatch), fuera del hilo del listener de Kafka.
+     *
+     * La cola admite un solo refresco en espera: las senales repetidas
+     * mientras tanto se descartan porque refrescarian las mismas cuentas.
+     *
+     * @return ThreadPoolTaskExecutor para el warm-up post-batch
+     */
+    @Bean
+    public ThreadPoolTaskExecutor warmupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("finance-warmup-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Registra exportExecutor como executor de las peticiones asincronas de MVC.
+     *
+     * @param exportExecutor Executor de exportaciones
+     * @return WebMvcConfigurer con el soporte asincrono configurado
+     */
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(
+            @Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(exportExecutor);
+            }
+        };
+    }
+
+    /**
+     * Copia los ThreadLocal de la peticion original al hilo del pool
+     * y los limpia al terminar la tarea.
+     */
+    private TaskDecorator contextoDecorator() {
+        return tarea -> {
+            RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+            SecurityContext seguridad = SecurityContextHolder.getContext();
+            return () -> {
+                try {
+                    RequestContextHolder.setRequestAttributes(atributos);
+                    SecurityContextHolder.setContext(seguridad);
+                    tarea.run();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package cl.duoc.finance_bff_web.config;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Formato de serializacion usado en las llamadas del BFF hacia finance-batch.
+ *
+ * Se selecciona con la propiedad backend.wire-format (json, cbor o smile).
+ * Los formatos binarios se piden con negociacion de contenido: el header
+ * Accept incluye el formato binario preferido y application/json con menor
+ * prioridad, de modo que si finance-batch no soporta el formato binario
+ * responde en JSON y el BFF lo decodifica igual.
+ */
+public enum FormatoWire {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    FormatoWire(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Valores del header Accept para este formato, con JSON como respaldo.
+     *
+     * @return Lista de media types en orden de preferencia
+     */
+    public List<MediaType> getAccept() {
+        if (this == JSON) {
+            return List.of(MediaType.APPLICATION_JSON);
+        }
+        return List.of(mediaType, MediaType.parseMediaType("application/json;q=0.5"));
+    }
+
+    /**
+     * Crea el convertidor Jackson que decodifica este formato.
+     *
+     * @return HttpMessageConverter para el formato
+     */
+    public HttpMessageConverter<Object> crearConvertidor() {
+        return switch (this) {
+            case CBOR -> new MappingJackson2CborHttpMessageConverter();
+            case SMILE -> new MappingJackson2SmileHttpMessageConverter();
+            default -> new MappingJackson2HttpMessageConverter();
+        };
+    }
+
+    /**
+     * Convierte el valor de la propiedad backend.wire-format (sin distinguir mayusculas).
+     *
+     * @param valor Valor configurado
+     * @return Formato correspondiente; JSON si el valor no se reconoce
+     */
+    public static FormatoWire desde(String valor) {
+        for (FormatoWire formato : values()) {
+            if (formato.name().equalsIgnoreCase(valor)) {
+                return formato;
+            }
+        }
+        return JSON;
+    }
+}
@@ -1,5 +1,11 @@
 package cl.duoc.finance_bff_web.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,10 +15,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import cl.duoc.finance_bff_web.security.AutoridadesCache;
 import cl.duoc.finance_bff_web.security.JwtFilter;
 import cl.duoc.finance_bff_web.security.JwtUtil;
 
@@ -23,18 +33,21 @@ import org.springframework.security.config.Customizer;
  *
  * Define:
  * - Cadena de filtros de seguridad (SecurityFilterChain)
- * - Usuarios en memoria para autenticacion
+ * - Almacen de usuarios intercambiable (en memoria por defecto) y PasswordEncoder
  * - Integracion del filtro JWT personalizado
  * - Politica de sesiones stateless (sin estado)
  *
  * Reglas de acceso:
  * - POST /auth/login -> Publico (sin autenticacion)
+ * - GET /actuator/health/** -> Publico (probes liveness/readiness de Kubernetes)
  * - GET /bff/web/v1/** -> Requiere rol CLIENTE_WEB
  * - Cualquier otro endpoint -> Requiere autenticacion
  *
  * Arquitectura:
  * El JwtFilter se instancia como @Bean aqui (no como @Component)
  * para evitar dependencias circulares con UserDetailsService.
+ * En modo stateless (por defecto) JwtFilter no consulta el almacen de
+ * usuarios: los roles se leen del claim "role" del token ya verificado.
  */
 @Configuration
 @EnableWebSecurity
@@ -44,16 +57,57 @@ public class SecurityConfig {
      * Crea el filtro JWT como bean de Spring.
      *
      * Se instancia manualmente para romper la dependencia circular:
-     * JwtFilter necesita UserDetailsService, que se define en esta misma clase.
+     * JwtFilter necesita el almacen de usuarios, que se define en esta misma clase.
      * Al crear ambos como @Bean, Spring resuelve el orden correctamente.
      *
-     * @param jwtUtil            Utilidad JWT para validar tokens
-     * @param userDetailsService Servicio de usuarios en memoria
+     * @param jwtUtil          Utilidad JWT para validar tokens
+     * @param autoridadesCache Cache de roles por usuario
+     * @param stateless        true para autenticar solo con los claims del token (bff.security.jwt.stateless)
      * @return Instancia configurada de JwtFilter
      */
     @Bean
-    public JwtFilter jwtFilter(JwtUtil jwtUtil, InMemoryUserDetailsManager userDetailsService) {
-        return new JwtFilter(jwtUtil, userDetailsService);
+    public JwtFilter jwtFilter(JwtUtil jwtUtil, AutoridadesCache autoridadesCache,
+            @Value("${bff.security.jwt.stateless:true}") boolean stateless) {
+        return new JwtFilter(jwtUtil, autoridadesCache, stateless);
+    }
+
+    /**
+     * Evita que Spring Boot registre JwtFilter como filtro de servlet adicional.
+     * El filtro solo debe ejecutarse dentro de la cadena de Spring Security.
+     *
+     * @param jwtFilter Filtro JWT
+     * @return Registro deshabilitado del filtro
+     */
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration(JwtFilter jwtFilter) {
+        FilterRegistrationBean<JwtFilter> registro = new FilterRegistrationBean<>(jwtFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    /**
+     * Cache de autoridades por usuario usada por JwtFilter en modo clasico.
+     *
+     * Falla al arrancar si ningun bean UserDetailsService corresponde a
+     * bff.security.user-store (ej: un valor mal escrito), en lugar de dejar
+     * la aplicacion sin almacen de usuarios.
+     *
+     * @param userDetailsService Almacen de usuarios activo, si existe
+     * @param userStore          Almacen configurado (bff.security.user-store)
+     * @param ttl                Tiempo de vida de cada entrada (bff.security.authorities-cache-ttl)
+     * @return AutoridadesCache sobre el almacen de usuarios
+     */
+    @Bean
+    public AutoridadesCache autoridadesCache(ObjectProvider<UserDetailsService> userDetailsService,
+            @Value("${bff.security.user-store:memory}") String userStore,
+            @Value("${bff.security.authorities-cache-ttl:5m}") Duration ttl) {
+        UserDetailsService almacen = userDetailsService.getIfAvailable();
+        if (almacen == null) {
+            throw new IllegalStateException("No hay un UserDetailsService para bff.security.user-store="
+                    + userStore + ". Valores soportados: memory, o registrar un UserDetailsService"
+                    + " condicionado a ese valor");
+        }
+        return new AutoridadesCache(almacen, ttl);
     }
 
     /**
@@ -68,23 +122,37 @@ public class SecurityConfig {
      * @return SecurityFilterChain configurada
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtFilter jwtFilter) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // Mantén tu configuración actual de CSRF
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**", "/public/**").permitAll() // Deja públicos los endpoints necesarios
+                        // Probes: un redirect al login de GitHub (302) contaria como "listo" para Kubernetes
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                         .anyRequest().authenticated() // Protege el resto
                 )
                 // Habilitamos el login de OAuth2 con la configuración por defecto
-                .oauth2Login(Customizer.withDefaults());
-
-        // NOTA: Temporalmente puedes comentar la línea donde añades tu JwtFilter
-        // personalizado
-        // para asegurarnos de que el flujo de GitHub funciona limpio primero.
+                .oauth2Login(Customizer.withDefaults())
+                // Tokens Bearer emitidos por /auth/login (clientes API y Postman)
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Codificador de passwords usado por el AuthenticationManager en el login.
+     *
+     * El costo de BCrypt es configurable (bff.security.bcrypt-strength, 4 a 31):
+     * cada punto adicional duplica el tiempo de verificacion de /auth/login.
+     *
+     * @param strength Costo (log2 de rondas) de BCrypt
+     * @return BCryptPasswordEncoder con el costo indicado
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${bff.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
     /**
      * Configura usuarios en memoria para autenticacion.
      *
@@ -93,17 +161,20 @@ public class SecurityConfig {
      * - Password: 1234
      * - Rol: CLIENTE_WEB (permite acceso a /bff/web/v1/**)
      *
-     * Nota: withDefaultPasswordEncoder() es solo para desarrollo/pruebas.
-     * En produccion se debe usar BCryptPasswordEncoder con usuarios en base de
-     * datos.
+     * Es el almacen por defecto (bff.security.user-store=memory). Para usar otro
+     * almacen (ej: base de datos o LDAP) basta con cambiar la propiedad y
+     * registrar otro bean UserDetailsService condicionado a ese valor; si no
+     * existe ninguno, autoridadesCache detiene el arranque con un mensaje claro.
      *
+     * @param passwordEncoder Codificador usado para guardar la password
      * @return InMemoryUserDetailsManager con los usuarios configurados
      */
     @Bean
-    public InMemoryUserDetailsManager userDetailsService() {
-        UserDetails user = User.withDefaultPasswordEncoder()
+    @ConditionalOnProperty(name = "bff.security.user-store", havingValue = "memory", matchIfMissing = true)
+    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
+        UserDetails user = User.builder()
                 .username("usuario_web")
-                .password("1234")
+                .password(passwordEncoder.encode("1234"))
                 .roles("CLIENTE_WEB")
                 .build();
         return new InMemoryUserDetailsManager(user);
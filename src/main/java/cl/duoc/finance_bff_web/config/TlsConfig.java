@@ -0,0 +1,80 @@
+package cl.duoc.finance_bff_web.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import cl.duoc.finance_bff_web.tls.TlsMedicionImplementation;
+
+/**
+ * Ajustes del listener HTTPS (puerto 8081) para reducir el costo de conexion.
+ *
+ * Se complementa con application.properties:
+ * - server.http2.enabled: HTTP/2 negociado por ALPN (una conexion, multiples peticiones)
+ * - SSL bundle "finance-web": keystore, protocolos (TLS 1.3/1.2), suites AEAD
+ *   de bajo costo y recarga del keystore sin reiniciar (reload-on-update)
+ *
+ * Este bean agrega lo que Spring Boot no expone como propiedad:
+ * - Tamano y vida de la cache de sesiones TLS (reanudacion por session ID
+ *   en TLS 1.2 y por session tickets en TLS 1.3)
+ * - Preferencia del orden de suites del servidor
+ * - Metricas de handshakes completos vs reanudados (TlsMedicionImplementation)
+ *
+ * Al recargar el keystore, Spring Boot reemplaza el SSLHostConfig del
+ * conector por uno nuevo construido solo desde el bundle, sin estos ajustes.
+ * Por eso se registra ademas un manejador de actualizacion del bundle que
+ * los vuelve a aplicar y reconstruye el contexto TLS. Se registra despues
+ * del de Spring Boot (los customizers del conector corren despues de
+ * configurar el SSL), asi que siempre actua sobre el SSLHostConfig nuevo.
+ * La recarga construye entonces el contexto dos veces, algo aceptable
+ * para un evento tan poco frecuente.
+ *
+ * Configuracion (application.properties):
+ * - bff.tls.session-cache-size: sesiones TLS en cache
+ * - bff.tls.session-timeout: vida de cada sesion en segundos
+ * - bff.tls.handshake-metrics: habilita la medicion de handshakes
+ */
+@Configuration
+public class TlsConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tlsCustomizer(
+            SslBundles sslBundles,
+            @Value("${server.ssl.bundle:}") String bundle,
+            @Value("${bff.tls.session-cache-size:20000}") int tamanoCache,
+            @Value("${bff.tls.session-timeout:3600}") int duracionSegundos,
+            @Value("${bff.tls.handshake-metrics:true}") boolean medirHandshakes) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (!connector.getSecure()) {
+                return;
+            }
+            if (medirHandshakes) {
+                connector.setProperty("sslImplementationName", TlsMedicionImplementation.class.getName());
+            }
+            aplicarOpciones(connector, tamanoCache, duracionSegundos);
+            if (StringUtils.hasText(bundle)) {
+                sslBundles.addBundleUpdateHandler(bundle, actualizado -> {
+                    aplicarOpciones(connector, tamanoCache, duracionSegundos);
+                    if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol<?> protocolo) {
+                        protocolo.reloadSslHostConfigs();
+                    }
+                });
+            }
+        });
+    }
+
+    private static void aplicarOpciones(Connector connector, int tamanoCache, int duracionSegundos) {
+        for (SSLHostConfig sslHostConfig : connector.findSslHostConfigs()) {
+            sslHostConfig.setHonorCipherOrder(true);
+            sslHostConfig.setSessionCacheSize(tamanoCache);
+            sslHostConfig.setSessionTimeout(duracionSegundos);
+        }
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import cl.duoc.finance_bff_web.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Controlador de autenticacion para el BFF Web.
@@ -41,21 +43,30 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    /** Registro de metricas: expone el timer bff.auth.login en /actuator/metrics (requiere autenticacion) */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Autentica al usuario y genera un token JWT.
      *
      * Flujo:
      * 1. Recibe credenciales (username/password) en formato JSON
-     * 2. Valida contra el InMemoryUserDetailsManager definido en SecurityConfig
+     * 2. Valida contra el almacen de usuarios (UserDetailsService) definido en SecurityConfig
      * 3. Si es valido, extrae el rol del usuario autenticado
      * 4. Genera un token JWT firmado con HS512 (valido por 30 minutos)
      * 5. Retorna el token en la respuesta
      *
+     * La duracion de cada intento se registra en el timer "bff.auth.login"
+     * (tag resultado=ok|rechazado) para medir el throughput del login:
+     * GET /actuator/metrics/bff.auth.login entrega COUNT, TOTAL_TIME y MAX.
+     *
      * @param request Objeto con username y password del usuario
      * @return ResponseEntity con el token JWT o error 401 si las credenciales son invalidas
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
         try {
             // Validar credenciales usando Spring Security AuthenticationManager
             Authentication auth = authenticationManager.authenticate(
@@ -68,9 +79,11 @@ public class AuthController {
             // Generar token JWT firmado con el username y rol
             String token = jwtUtil.generateToken(request.getUsername(), role);
 
+            muestra.stop(meterRegistry.timer("bff.auth.login", "resultado", "ok"));
             return ResponseEntity.ok(new LoginResponse(token));
 
         } catch (AuthenticationException e) {
+            muestra.stop(meterRegistry.timer("bff.auth.login", "resultado", "rechazado"));
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Credenciales inválidas");
         }
     }
@@ -1,14 +1,41 @@
 package cl.duoc.finance_bff_web.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletResponse;
 
+import cl.duoc.finance_bff_web.cache.ResumenCache;
 import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+import cl.duoc.finance_bff_web.resilience.LimitadorAdaptativo;
+import cl.duoc.finance_bff_web.service.EscritorMovimientos;
 import cl.duoc.finance_bff_web.service.FinanceWebService;
+import cl.duoc.finance_bff_web.warmup.CuentasCalientes;
 
 // IMPORTANTE: Aquí importamos el productor que acabas de crear
 import cl.duoc.finance_bff_web.kafka.AuditoriaProducer;
@@ -24,17 +51,213 @@ public class FinanceWebController {
     @Autowired
     private AuditoriaProducer auditoriaProducer;
 
+    // Pool acotado (AsyncConfig) y limitador adaptativo para no bloquear hilos de Tomcat
+    @Autowired
+    @Qualifier("financeExecutor")
+    private ThreadPoolTaskExecutor financeExecutor;
+
+    @Autowired
+    private LimitadorAdaptativo limitador;
+
+    // Cache de resumenes y ranking de cuentas calientes para el warm-up
+    @Autowired
+    private ResumenCache resumenCache;
+
+    @Autowired
+    private CuentasCalientes cuentasCalientes;
+
+    @Value("${bff.admission.retry-after-seconds:2}")
+    private long retryAfterSegundos;
+
+    @Value("${bff.admission.timeout:15000}")
+    private long timeoutConsultaMs;
+
     @GetMapping("/cuentas/{id}")
-    public ResponseEntity<ResumenWebDTO> obtenerResumenClienteWeb(@PathVariable Long id) {
-        
-        // Obtiene los datos como siempre (llamando al Core)
-        ResumenWebDTO respuesta = financeWebService.obtenerResumenCuenta(id);
-        
-        // 2. ¡NUEVO! Dispara el mensaje a Kafka de forma asíncrona
-        // Convertimos el Long a String para enviarlo en el mensaje
-        auditoriaProducer.registrarConsulta(String.valueOf(id), "BFF-WEB");
-        
-        // Retorna la respuesta al cliente sin demoras
-        return ResponseEntity.ok(respuesta);
+    public CompletableFuture<ResponseEntity<ResumenWebDTO>> obtenerResumenClienteWeb(@PathVariable Long id) {
+
+        cuentasCalientes.registrar(id);
+
+        // Si el resumen esta en cache se responde sin ocupar cupo ni hilo del pool
+        ResumenWebDTO enCache = resumenCache.obtener(id);
+        if (enCache != null) {
+            auditoriaProducer.registrarConsulta(String.valueOf(id), "BFF-WEB");
+            return CompletableFuture.completedFuture(ResponseEntity.ok(enCache));
+        }
+
+        // Control de admision: si el Core esta lento, se rechaza rapido en vez de encolar
+        LimitadorAdaptativo.Permiso permiso = limitador.intentarAdquirir();
+        if (permiso == null) {
+            return CompletableFuture.completedFuture(rechazar(id));
+        }
+
+        CompletableFuture<ResumenWebDTO> consulta;
+        try {
+            // Obtiene los datos como siempre (llamando al Core), pero en el pool acotado
+            consulta = CompletableFuture.supplyAsync(() -> {
+                permiso.iniciar();
+                return financeWebService.obtenerResumenCuenta(id);
+            }, financeExecutor);
+        } catch (RejectedExecutionException e) {
+            // Pool sin hilos libres: se responde con el fallback del circuit breaker
+            permiso.cancelar();
+            return CompletableFuture.completedFuture(rechazar(id));
+        }
+
+        // 2. Dispara el mensaje a Kafka fuera de la respuesta: un fallo de auditoria
+        // no convierte una respuesta valida del Core en un 503
+        consulta.thenRun(() -> auditoriaProducer.registrarConsulta(String.valueOf(id), "BFF-WEB"));
+
+        return consulta
+                .thenApply(respuesta -> {
+                    // El fallback del circuit breaker no lanza excepcion: se cuenta como falla
+                    permiso.liberar(!respuesta.isContingencia());
+
+                    // Retorna la respuesta al cliente sin demoras
+                    return ResponseEntity.ok(respuesta);
+                })
+                // Tiempo maximo de espera por el Core; al vencer se responde con el fallback
+                .orTimeout(timeoutConsultaMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    // Timeout o error: se libera el cupo como falla y se descarta la tarea si aun no empezo
+                    permiso.liberar(false);
+                    consulta.cancel(false);
+                    return rechazar(id);
+                });
+    }
+
+    /**
+     * Exporta los movimientos de una cuenta en CSV (o TSV) escribiendo directo
+     * en la respuesta, pagina por pagina, con memoria constante.
+     *
+     * - desde / hasta: rango de fechas (ISO, ej: 2024-01-31), opcionales
+     * - despuesDe: id del ultimo movimiento recibido; permite reanudar una descarga
+     *   interrumpida sin volver a recorrer lo ya entregado (al reanudar no se repite el encabezado)
+     * - Si el pool de exportaciones esta lleno se responde 503 con Retry-After
+     * - Si el cliente acepta gzip en Accept-Encoding (q mayor que 0) la salida se comprime
+     *
+     * Ejemplo:
+     *   GET /bff/web/v1/cuentas/1/movimientos/export?formato=csv&desde=2024-01-01&despuesDe=1500
+     */
+    @GetMapping("/cuentas/{id}/movimientos/export")
+    public ResponseEntity<StreamingResponseBody> exportarMovimientos(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean tsv = "tsv".equalsIgnoreCase(formato);
+        boolean gzip = aceptaGzip(acceptEncoding);
+
+        StreamingResponseBody cuerpo = salida -> {
+            // Se cierra el stream de compresion (no la respuesta, que cierra el contenedor)
+            // para liberar el Deflater nativo tambien cuando la descarga falla a mitad
+            OutputStream sinCerrar = StreamUtils.nonClosing(salida);
+            try (OutputStream destino = gzip ? new SalidaGzip(sinCerrar) : sinCerrar) {
+                EscritorMovimientos escritor = new EscritorMovimientos(destino, formato);
+                if (despuesDe == null) {
+                    escritor.escribirEncabezado();
+                }
+                financeWebService.recorrerMovimientos(id, desde, hasta, despuesDe, escritor::escribir);
+                escritor.flush();
+            }
+        };
+
+        auditoriaProducer.registrarConsulta(String.valueOf(id), "BFF-WEB-EXPORT");
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(tsv ? "text/tab-separated-values;charset=UTF-8" : "text/csv;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("movimientos-" + id + (tsv ? ".tsv" : ".csv")).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (despuesDe != null) {
+            respuesta.header("X-Export-Despues-De", String.valueOf(despuesDe));
+        }
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * Indica si Accept-Encoding admite gzip: la codificacion gzip (o x-gzip) con
+     * q mayor que 0, o en su defecto el comodin * con q mayor que 0. Asi
+     * "gzip;q=0" rechaza la compresion aunque el header mencione gzip.
+     */
+    static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double qGzip = null;
+        Double qComodin = null;
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.split(";");
+            String nombre = partes[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.length() > 2 && parametro.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (nombre.equals("gzip") || nombre.equals("x-gzip")) {
+                qGzip = qGzip == null ? q : Math.max(qGzip, q);
+            } else if (nombre.equals("*")) {
+                qComodin = q;
+            }
+        }
+        return qGzip != null ? qGzip > 0 : qComodin != null && qComodin > 0;
+    }
+
+    /**
+     * GZIPOutputStream que libera su Deflater aunque falle la escritura del
+     * final del stream (el cliente corto la descarga): close() de la JDK no
+     * llama a end() si finish() lanza una excepcion.
+     */
+    private static class SalidaGzip extends GZIPOutputStream {
+
+        SalidaGzip(OutputStream salida) throws IOException {
+            super(salida, 8192);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+
+    /**
+     * Pool de exportaciones (exportExecutor) lleno: Spring MVC entrega el rechazo
+     * como resultado asincrono. Se descartan los headers de la descarga ya
+     * preparados (Content-Disposition, Content-Encoding) y se responde 503.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> exportacionRechazada(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos))
+                .build();
+    }
+
+    /**
+     * Respuesta rapida 503 cuando el BFF no tiene capacidad para atender la consulta.
+     * El cuerpo es el resumen de contingencia del circuit breaker.
+     */
+    private ResponseEntity<ResumenWebDTO> rechazar(Long id) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos))
+                .body(financeWebService.obtenerResumenContingencia(id));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package cl.duoc.finance_bff_web.kafka;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -8,16 +12,41 @@ public class AuditoriaProducer {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
 
-    public AuditoriaProducer(KafkaTemplate<String, String> kafkaTemplate) {
+    // Hilo propio (AsyncConfig): send() puede bloquear esperando la metadata de Kafka
+    private final ThreadPoolTaskExecutor auditoriaExecutor;
+
+    public AuditoriaProducer(KafkaTemplate<String, String> kafkaTemplate,
+            @Qualifier("auditoriaExecutor") ThreadPoolTaskExecutor auditoriaExecutor) {
         this.kafkaTemplate = kafkaTemplate;
+        this.auditoriaExecutor = auditoriaExecutor;
     }
 
+    /**
+     * Envia el registro de auditoria sin esperar a Kafka (fire-and-forget).
+     * Nunca lanza excepcion ni bloquea al llamador: un fallo del envio solo
+     * se registra en el log y no cambia la respuesta que recibe el cliente.
+     */
     public void registrarConsulta(String cuentaId, String canal) {
         String mensaje = "Consulta realizada a la cuenta ID: " + cuentaId + " a través del canal: " + canal;
-        
-        // Se envía al tópico llamado 'auditoria-topic'
-        kafkaTemplate.send("auditoria-topic", mensaje);
-        
-        System.out.println(">> Mensaje enviado a Kafka: " + mensaje);
+        try {
+            auditoriaExecutor.execute(() -> enviar(mensaje));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Auditoria descartada (cola llena): " + mensaje);
+        }
+    }
+
+    private void enviar(String mensaje) {
+        try {
+            // Se envía al tópico llamado 'auditoria-topic'
+            kafkaTemplate.send("auditoria-topic", mensaje).whenComplete((resultado, error) -> {
+                if (error != null) {
+                    System.err.println("Error enviando auditoria a Kafka: " + error.getMessage());
+                }
+            });
+            System.out.println(">> Mensaje enviado a Kafka: " + mensaje);
+        } catch (RuntimeException e) {
+            // send() falla antes de encolar si no obtiene la metadata del topico (max.block.ms)
+            System.err.println("Error enviando auditoria a Kafka: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package cl.duoc.finance_bff_web.kafka;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+import cl.duoc.finance_bff_web.warmup.WarmupService;
+
+@Service
+public class BatchCompletadoListener {
+
+    private final WarmupService warmupService;
+
+    // Con cache compartida entre procesos basta con que una replica refresque: todas usan el
+    // mismo groupId. Si no (none o el almacen embebido, que es de cada proceso) cada replica
+    // usa un groupId propio y estable (bff.instance-id) para refrescar su cache local; al ser
+    // estable, reiniciar la replica reutiliza su grupo en lugar de dejar uno huerfano en Kafka.
+    private final String grupo;
+
+    public BatchCompletadoListener(WarmupService warmupService, ResumenCache resumenCache,
+            @Value("${spring.application.name}") String aplicacion,
+            @Value("${bff.instance-id:${HOSTNAME:localhost}-${server.port:8080}}") String instancia) {
+        this.warmupService = warmupService;
+        this.grupo = resumenCache.tieneCompartido()
+                ? aplicacion + "-warmup"
+                : aplicacion + "-warmup-" + instancia;
+    }
+
+    public String getGrupo() {
+        return grupo;
+    }
+
+    @KafkaListener(topics = "${bff.warmup.batch-topic:batch-completado-topic}", groupId = "#{__listener.grupo}")
+    public void alCompletarBatch(String mensaje) {
+        System.out.println(">> Señal de batch completado recibida: " + mensaje);
+        warmupService.precalentarTrasBatch();
+    }
+}
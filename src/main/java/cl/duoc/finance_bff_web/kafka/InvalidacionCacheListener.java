@@ -0,0 +1,32 @@
+package cl.duoc.finance_bff_web.kafka;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+
+@Service
+@ConditionalOnProperty(name = "bff.cache.invalidation.enabled", havingValue = "true")
+public class InvalidacionCacheListener {
+
+    private final InvalidacionCacheProducer producer;
+    private final ResumenCache resumenCache;
+
+    public InvalidacionCacheListener(InvalidacionCacheProducer producer, ResumenCache resumenCache) {
+        this.producer = producer;
+        this.resumenCache = resumenCache;
+    }
+
+    // Cada replica usa su propio groupId (estable entre reinicios) para que todas reciban cada invalidacion
+    @KafkaListener(topics = "${bff.cache.invalidation.topic:bff-cache-invalidacion-topic}",
+            groupId = "${spring.application.name}-cache-${bff.instance-id:${HOSTNAME:localhost}-${server.port:8080}}")
+    public void alRecibirInvalidacion(String mensaje) {
+        int separador = mensaje.lastIndexOf(':');
+        if (separador < 0 || mensaje.substring(0, separador).equals(producer.getReplicaId())) {
+            return;
+        }
+        // Solo se descarta la copia local: el almacen compartido ya fue actualizado por el emisor
+        resumenCache.invalidarLocal(Long.valueOf(mensaje.substring(separador + 1)));
+    }
+}
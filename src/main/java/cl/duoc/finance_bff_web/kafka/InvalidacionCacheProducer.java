@@ -0,0 +1,34 @@
+package cl.duoc.finance_bff_web.kafka;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "bff.cache.invalidation.enabled", havingValue = "true")
+public class InvalidacionCacheProducer {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    // Identificador de esta replica, para ignorar sus propias invalidaciones
+    private final String replicaId = UUID.randomUUID().toString();
+
+    @Value("${bff.cache.invalidation.topic:bff-cache-invalidacion-topic}")
+    private String topico;
+
+    public InvalidacionCacheProducer(KafkaTemplate<String, String> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    public void publicarInvalidacion(Long cuentaId) {
+        // Formato del mensaje: "{replicaId}:{cuentaId}"
+        kafkaTemplate.send(topico, String.valueOf(cuentaId), replicaId + ":" + cuentaId);
+    }
+
+    public String getReplicaId() {
+        return replicaId;
+    }
+}
@@ -3,6 +3,8 @@ package cl.duoc.finance_bff_web.model;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 
 /**
@@ -17,6 +19,7 @@ import lombok.Data;
  * - fechaConsulta: Timestamp del momento en que se realizo la consulta
  * - cuenta: Datos completos de la cuenta consultada
  * - movimientos: Lista de transacciones asociadas a la cuenta
+ * - desactualizado: true si los datos son el ultimo resumen conocido (modo degradado)
  *
  * Ejemplo de respuesta exitosa:
  * {
@@ -39,4 +42,14 @@ public class ResumenWebDTO {
 
     /** Lista de movimientos/transacciones de la cuenta */
     private List<EstadoFinancieroDTO> movimientos;
+
+    /** Indica que el resumen proviene del ultimo dato conocido porque el Core no esta disponible */
+    private boolean desactualizado;
+
+    /**
+     * Indica que el resumen lo genero el fallback (el Core no respondio).
+     * Uso interno: el limitador adaptativo lo cuenta como falla; no se envia al cliente.
+     */
+    @JsonIgnore
+    private boolean contingencia;
 }
@@ -0,0 +1,174 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limitador de concurrencia adaptativo (AIMD) para las consultas al Core.
+ *
+ * Controla cuantas consultas a finance-batch pueden estar en curso al mismo
+ * tiempo. El limite se ajusta segun la latencia medida de cada llamada:
+ * - Incremento aditivo: si la llamada fue exitosa y rapida, el limite sube en 1
+ * - Decremento multiplicativo: si la llamada fallo o supero la latencia objetivo,
+ *   el limite se multiplica por el factor de reduccion, como maximo una vez
+ *   por ventana (la latencia objetivo), aunque lleguen muchas respuestas
+ *   lentas juntas
+ *
+ * Asi, cuando el Core se pone lento el BFF deja de aceptar trabajo nuevo
+ * en vez de acumular hilos bloqueados, y cuando se recupera vuelve a
+ * abrir la capacidad de forma gradual.
+ *
+ * Cada cupo se entrega como un {@link Permiso} que se libera una sola vez,
+ * aunque la consulta termine despues de que el cliente recibio un timeout.
+ * La latencia se mide desde {@link Permiso#iniciar()} (la tarea empezo a
+ * ejecutarse), no desde la reserva, para no contar la espera en el pool.
+ *
+ * Configuracion (application.properties):
+ * - bff.concurrency.min-limit: limite minimo (nunca baja de este valor)
+ * - bff.concurrency.max-limit: limite maximo
+ * - bff.concurrency.initial-limit: limite al arrancar
+ * - bff.concurrency.target-latency: latencia objetivo en milisegundos
+ * - bff.concurrency.backoff-ratio: factor de reduccion ante sobrecarga
+ */
+@Component
+public class LimitadorAdaptativo {
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaObjetivoNanos;
+    private final double factorReduccion;
+
+    /** Limite actual de llamadas concurrentes permitidas */
+    private final AtomicInteger limite;
+
+    /** Llamadas actualmente en curso hacia el Core */
+    private final AtomicInteger enCurso = new AtomicInteger();
+
+    /** Instante (System.nanoTime) de la ultima reduccion del limite */
+    private final AtomicLong ultimaReduccion;
+
+    public LimitadorAdaptativo(
+            @Value("${bff.concurrency.min-limit:4}") int limiteMinimo,
+            @Value("${bff.concurrency.max-limit:64}") int limiteMaximo,
+            @Value("${bff.concurrency.initial-limit:16}") int limiteInicial,
+            @Value("${bff.concurrency.target-latency:500}") long latenciaObjetivoMs,
+            @Value("${bff.concurrency.backoff-ratio:0.9}") double factorReduccion) {
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaObjetivoNanos = TimeUnit.MILLISECONDS.toNanos(latenciaObjetivoMs);
+        this.factorReduccion = factorReduccion;
+        this.limite = new AtomicInteger(Math.max(limiteMinimo, Math.min(limiteInicial, limiteMaximo)));
+        this.ultimaReduccion = new AtomicLong(System.nanoTime() - latenciaObjetivoNanos);
+    }
+
+    /**
+     * Intenta reservar un cupo para una nueva llamada al Core.
+     *
+     * @return Permiso a liberar al terminar la llamada, o null si la peticion debe rechazarse
+     */
+    public Permiso intentarAdquirir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= limite.get()) {
+                return null;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return new Permiso();
+            }
+        }
+    }
+
+    /**
+     * Ajusta el limite segun el resultado de una llamada ya terminada.
+     *
+     * @param latenciaNanos Duracion de la llamada en nanosegundos
+     * @param exitosa       true si el Core respondio (sin error ni fallback)
+     * @param enCursoAntes  Llamadas en curso antes de liberar este cupo
+     */
+    private void ajustar(long latenciaNanos, boolean exitosa, int enCursoAntes) {
+        if (!exitosa || latenciaNanos > latenciaObjetivoNanos) {
+            long ahora = System.nanoTime();
+            long anterior = ultimaReduccion.get();
+            // Una sola reduccion por ventana: el primer hilo que gana el CAS reduce
+            if (ahora - anterior >= latenciaObjetivoNanos && ultimaReduccion.compareAndSet(anterior, ahora)) {
+                limite.updateAndGet(actual -> Math.max(limiteMinimo, (int) (actual * factorReduccion)));
+            }
+        } else if (enCursoAntes * 2 >= limite.get()) {
+            // Solo se crece si el limite realmente se esta usando
+            limite.updateAndGet(actual -> Math.min(limiteMaximo, actual + 1));
+        }
+    }
+
+    /**
+     * Vuelve el limite al minimo (ej: al reabrir el trafico tras una caida del Core),
+     * para que la capacidad crezca de forma gradual con respuestas rapidas.
+     */
+    public void reiniciarAlMinimo() {
+        limite.set(limiteMinimo);
+    }
+
+    public int getLimite() {
+        return limite.get();
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    /**
+     * Cupo reservado para una llamada al Core. Solo la primera llamada a
+     * liberar o cancelar tiene efecto; las siguientes se ignoran.
+     */
+    public final class Permiso {
+
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        /** Instante (System.nanoTime) en que la llamada empezo a ejecutarse */
+        private volatile long inicio = System.nanoTime();
+
+        private Permiso() {
+        }
+
+        /**
+         * Marca el inicio real de la llamada al Core (ej: al salir de la cola del pool).
+         */
+        public void iniciar() {
+            inicio = System.nanoTime();
+        }
+
+        /**
+         * Libera el cupo con la latencia medida desde {@link #iniciar()}.
+         *
+         * @param exitosa true si el Core respondio (sin error ni fallback)
+         */
+        public void liberar(boolean exitosa) {
+            liberar(System.nanoTime() - inicio, exitosa);
+        }
+
+        /**
+         * Libera el cupo y ajusta el limite segun el resultado de la llamada.
+         *
+         * @param latenciaNanos Duracion de la llamada en nanosegundos
+         * @param exitosa       true si el Core respondio (sin error ni fallback)
+         */
+        public void liberar(long latenciaNanos, boolean exitosa) {
+            if (liberado.compareAndSet(false, true)) {
+                ajustar(latenciaNanos, exitosa, enCurso.getAndDecrement());
+            }
+        }
+
+        /**
+         * Libera el cupo sin ajustar el limite (ej: la tarea nunca llego a ejecutarse).
+         */
+        public void cancelar() {
+            if (liberado.compareAndSet(false, true)) {
+                enCurso.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filtro de limitacion de tasa por cliente.
+ *
+ * Se ejecuta justo despues de la cadena de Spring Security, de modo que
+ * el cliente se identifica por:
+ * 1. El usuario autenticado (subject del JWT validado por JwtFilter o
+ *    principal OAuth2 de GitHub)
+ * 2. La IP de origen, si la peticion es anonima (ej: POST /auth/login).
+ *    Es la IP que entrega Tomcat: X-Forwarded-For solo se acepta si la
+ *    conexion viene de un proxy de confianza (server.tomcat.remoteip.internal-proxies),
+ *    asi un cliente no puede obtener un bucket nuevo cambiando el header
+ *
+ * Cada regla de RateLimitProperties mantiene un ConcurrentHashMap
+ * (segmentado internamente) de TokenBucket por cliente. La limpieza nunca
+ * ocurre en el hilo de la peticion: la tarea programada elimina los buckets
+ * inactivos y, si el mapa supera bff.rate-limit.max-clients, recorta primero
+ * los buckets llenos (equivalen a uno nuevo, no se pierde estado) y luego los
+ * mas cercanos a llenarse. Cuando una peticion encuentra el mapa lleno solo
+ * adelanta ese recorte en segundo plano y sigue con un bucket propio, asi que
+ * el limite es blando: puede superarse brevemente mientras corre el recorte.
+ *
+ * Headers de respuesta:
+ * - X-RateLimit-Limit: capacidad del bucket
+ * - X-RateLimit-Remaining: tokens restantes
+ * - X-RateLimit-Reset: segundos hasta que el bucket vuelve a estar lleno
+ * - Retry-After (solo en 429): segundos a esperar antes de reintentar
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<ReglaActiva> reglas = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        properties.getRules().forEach((nombre, regla) -> reglas.add(new ReglaActiva(regla)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || reglas.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        ReglaActiva regla = buscarRegla(ruta);
+        if (regla == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long ahora = System.nanoTime();
+        TokenBucket bucket = regla.bucketDe(resolverCliente(request), ahora);
+        long resultado = bucket.consumir(ahora);
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(regla.capacidad));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, resultado)));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(segundos(bucket.nanosHastaLleno(ahora))));
+
+        if (resultado < 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos(-resultado)));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.getWriter().write("Error: Limite de peticiones excedido");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Elimina periodicamente los buckets de clientes inactivos y recorta
+     * las reglas que superan bff.rate-limit.max-clients.
+     */
+    @Scheduled(fixedDelayString = "${bff.rate-limit.eviction-interval:60000}")
+    public void eliminarInactivos() {
+        long ahora = System.nanoTime();
+        long umbral = properties.getIdleTimeout().toNanos();
+        for (ReglaActiva regla : reglas) {
+            regla.buckets.values().removeIf(bucket -> bucket.inactivo(ahora, umbral));
+            regla.recortar();
+        }
+    }
+
+    /**
+     * @return Cantidad de clientes con bucket propio en todas las reglas
+     */
+    int getClientes() {
+        int total = 0;
+        for (ReglaActiva regla : reglas) {
+            total += regla.buckets.size();
+        }
+        return total;
+    }
+
+    private ReglaActiva buscarRegla(String ruta) {
+        for (ReglaActiva regla : reglas) {
+            if (matcher.match(regla.patron, ruta)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    private String resolverCliente(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "u:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    static long segundos(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Regla configurada junto con sus buckets por cliente.
+     */
+    private final class ReglaActiva {
+        private final String patron;
+        private final int capacidad;
+        private final long intervaloNanos;
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean recortando = new AtomicBoolean();
+
+        private ReglaActiva(RateLimitProperties.Regla regla) {
+            this.patron = regla.getPath();
+            this.capacidad = regla.getCapacity();
+            this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / regla.getRefillPerSecond());
+        }
+
+        private TokenBucket bucketDe(String cliente, long ahora) {
+            TokenBucket bucket = buckets.get(cliente);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= properties.getMaxClients() && recortando.compareAndSet(false, true)) {
+                // El recorte ordena el mapa: se hace fuera del hilo de la peticion
+                CompletableFuture.runAsync(this::recortarYLiberar);
+            }
+            return buckets.computeIfAbsent(cliente, k -> new TokenBucket(intervaloNanos, capacidad, ahora));
+        }
+
+        private void recortarYLiberar() {
+            try {
+                recortar();
+            } finally {
+                recortando.set(false);
+            }
+        }
+
+        /**
+         * Si el mapa supera el maximo, elimina los buckets llenos y, si no
+         * alcanza, la decima parte de los buckets mas cercanos a llenarse.
+         */
+        private void recortar() {
+            int maximo = properties.getMaxClients();
+            if (buckets.size() < maximo) {
+                return;
+            }
+            long ahora = System.nanoTime();
+            buckets.values().removeIf(bucket -> bucket.inactivo(ahora, 0));
+            int exceso = buckets.size() - maximo;
+            if (exceso < 0) {
+                return;
+            }
+            buckets.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().nanosHastaLleno(ahora), b.getValue().nanosHastaLleno(ahora)))
+                    .limit(exceso + Math.max(1, maximo / 10))
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(buckets::remove);
+        }
+    }
+}
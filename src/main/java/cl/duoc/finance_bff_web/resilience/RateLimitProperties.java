@@ -0,0 +1,47 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Propiedades de limitacion de tasa por cliente (prefijo bff.rate-limit).
+ *
+ * Cada regla asocia un patron de ruta (estilo Ant) con un token bucket:
+ * - capacity: rafaga maxima de peticiones permitidas
+ * - refill-per-second: tokens que se recuperan por segundo
+ *
+ * Ejemplo:
+ *   bff.rate-limit.rules.cuentas.path=/bff/web/v1/cuentas/**
+ *   bff.rate-limit.rules.cuentas.capacity=20
+ *   bff.rate-limit.rules.cuentas.refill-per-second=5
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bff.rate-limit")
+public class RateLimitProperties {
+
+    /** Habilita o deshabilita la limitacion de tasa */
+    private boolean enabled = true;
+
+    /** Numero maximo de clientes con bucket propio por regla; el barrido periodico recorta los buckets mas cercanos a llenarse */
+    private int maxClients = 10000;
+
+    /** Tiempo sin actividad tras el cual el bucket de un cliente se elimina */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Reglas por endpoint, en orden de evaluacion */
+    private Map<String, Regla> rules = new LinkedHashMap<>();
+
+    @Data
+    public static class Regla {
+        private String path;
+        private int capacity = 10;
+        private double refillPerSecond = 1.0;
+    }
+}
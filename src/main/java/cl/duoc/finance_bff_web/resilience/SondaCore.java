@@ -0,0 +1,140 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import cl.duoc.finance_bff_web.security.JwtUtil;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sonda de baja frecuencia que decide cuando reabrir el trafico hacia el Core.
+ *
+ * Mientras el breaker esta abierto, el trafico de usuarios no llega al Core
+ * (se responde con el ultimo resumen conocido). Esta sonda consulta el Core
+ * cada bff.degradado.probe-interval ms y, tras bff.degradado.probe-successes
+ * respuestas sanas y rapidas consecutivas, pasa el breaker a HALF_OPEN.
+ * Asi la recuperacion se confirma sin usar peticiones de usuarios como prueba.
+ *
+ * La reapertura es gradual para no saturar al Core (la cache cercana ya
+ * expiro y todas las consultas fallarian en cache a la vez):
+ * - En HALF_OPEN solo pasan permitted-number-of-calls-in-half-open-state
+ *   llamadas; el resto sigue recibiendo el ultimo resumen conocido. Si esas
+ *   llamadas van bien el breaker se cierra; si no, vuelve a OPEN
+ * - El limitador adaptativo parte desde bff.concurrency.min-limit y crece
+ *   de a una llamada por respuesta rapida
+ *
+ * Una respuesta 4xx (ej: cuenta de sonda inexistente) cuenta como sana:
+ * el Core respondio. Un 5xx, un error de red o una respuesta mas lenta que
+ * bff.degradado.probe-max-latency cuenta como falla y reinicia la racha.
+ *
+ * La sonda corre en un scheduler propio de un hilo (finance-sonda-) y no en
+ * el scheduler compartido de @Scheduled: una consulta puede bloquear hasta
+ * bff.degradado.probe-timeout y no debe retrasar las demas tareas programadas
+ * (barrido del rate limit, consolidacion de cuentas calientes, etc.).
+ *
+ * wait-duration-in-open-state del breaker queda como respaldo, por si la
+ * sonda esta deshabilitada.
+ */
+@Component
+public class SondaCore {
+
+    private final CircuitBreaker circuitBreaker;
+    private final LimitadorAdaptativo limitador;
+    private final JwtUtil jwtUtil;
+    private final RestTemplate restTemplate;
+    private final boolean habilitada;
+    private final String urlSonda;
+    private final int exitosRequeridos;
+    private final long latenciaMaximaMs;
+    private final long intervaloMs;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    private int exitosConsecutivos;
+
+    public SondaCore(CircuitBreakerRegistry registry, LimitadorAdaptativo limitador, JwtUtil jwtUtil,
+            @Value("${bff.degradado.probe-enabled:true}") boolean habilitada,
+            @Value("${backend.url:http://localhost:8080/api/v1}/cuentas/${bff.degradado.probe-account-id:1}") String urlSonda,
+            @Value("${bff.degradado.probe-successes:3}") int exitosRequeridos,
+            @Value("${bff.degradado.probe-max-latency:2000}") long latenciaMaximaMs,
+            @Value("${bff.degradado.probe-timeout:3000}") int timeoutMs,
+            @Value("${bff.degradado.probe-interval:5000}") long intervaloMs) {
+        this.circuitBreaker = registry.circuitBreaker("financeCore");
+        this.limitador = limitador;
+        this.jwtUtil = jwtUtil;
+        this.habilitada = habilitada;
+        this.urlSonda = urlSonda;
+        this.exitosRequeridos = exitosRequeridos;
+        this.latenciaMaximaMs = latenciaMaximaMs;
+        this.intervaloMs = intervaloMs;
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(timeoutMs);
+        factory.setReadTimeout(timeoutMs);
+        this.restTemplate = new RestTemplate(factory);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("finance-sonda-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::sondear, Duration.ofMillis(intervaloMs));
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    public void sondear() {
+        if (!habilitada || circuitBreaker.getState() != CircuitBreaker.State.OPEN) {
+            exitosConsecutivos = 0;
+            return;
+        }
+
+        if (!coreSano()) {
+            exitosConsecutivos = 0;
+            return;
+        }
+
+        if (++exitosConsecutivos >= exitosRequeridos) {
+            System.out.println(">> Sonda: finance-batch recuperado, circuit breaker financeCore a HALF_OPEN");
+            limitador.reiniciarAlMinimo();
+            circuitBreaker.transitionToHalfOpenState();
+            exitosConsecutivos = 0;
+        }
+    }
+
+    private boolean coreSano() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB"));
+        long inicio = System.nanoTime();
+        try {
+            restTemplate.exchange(urlSonda, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        } catch (HttpClientErrorException e) {
+            // 4xx: el Core esta respondiendo
+        } catch (Exception e) {
+            return false;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) <= latenciaMaximaMs;
+    }
+}
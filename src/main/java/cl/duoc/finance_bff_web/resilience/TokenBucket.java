@@ -0,0 +1,61 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin bloqueos basado en GCRA (Generic Cell Rate Algorithm).
+ *
+ * Todo el estado del bucket es un unico long: el "tiempo teorico de llegada"
+ * (TAT) de la siguiente peticion. Consumir un token es un compareAndSet sobre
+ * ese valor, sin locks ni objetos nuevos por peticion.
+ *
+ * - intervalo: nanosegundos necesarios para recuperar un token (1 / tasa)
+ * - rafaga: intervalo * capacidad (holgura maxima acumulable)
+ */
+final class TokenBucket {
+
+    private final long intervalo;
+    private final long rafaga;
+    private final AtomicLong tat;
+
+    TokenBucket(long intervaloNanos, int capacidad, long ahora) {
+        this.intervalo = intervaloNanos;
+        this.rafaga = intervaloNanos * capacidad;
+        this.tat = new AtomicLong(ahora);
+    }
+
+    /**
+     * Intenta consumir un token.
+     *
+     * @param ahora Instante actual (System.nanoTime)
+     * @return tokens restantes (>= 0) si se permitio la peticion, o
+     *         el negativo de los nanosegundos a esperar si se rechazo
+     */
+    long consumir(long ahora) {
+        while (true) {
+            long actual = tat.get();
+            long nuevo = Math.max(actual, ahora) + intervalo;
+            long ocupado = nuevo - ahora;
+            if (ocupado > rafaga) {
+                return -Math.max(1, ocupado - rafaga);
+            }
+            if (tat.compareAndSet(actual, nuevo)) {
+                return (rafaga - ocupado) / intervalo;
+            }
+        }
+    }
+
+    /**
+     * Nanosegundos que faltan para que el bucket vuelva a estar lleno.
+     */
+    long nanosHastaLleno(long ahora) {
+        return Math.max(0, tat.get() - ahora);
+    }
+
+    /**
+     * Un bucket esta inactivo si lleva lleno mas tiempo que el umbral indicado.
+     */
+    boolean inactivo(long ahora, long umbralNanos) {
+        return ahora - tat.get() > umbralNanos;
+    }
+}
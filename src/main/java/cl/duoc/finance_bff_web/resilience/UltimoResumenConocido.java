@@ -0,0 +1,88 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import cl.duoc.finance_bff_web.cache.ResumenCodec;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+/**
+ * Ultimo resumen valido conocido por cuenta, para el modo degradado.
+ *
+ * Cada consulta exitosa al Core deja aqui una copia serializada con
+ * ResumenCodec (bytes compactos, sin grafo de objetos). Si el circuit
+ * breaker esta abierto o el BFF esta saturado, el fallback responde con
+ * esta copia marcada como desactualizada en lugar de un resumen vacio.
+ *
+ * A diferencia de ResumenCache, las copias no expiran: se descartan las de
+ * cuentas menos usadas (LRU) al superar bff.degradado.max-bytes en total o
+ * bff.degradado.max-snapshots copias. El limite por bytes es el que importa
+ * con historiales grandes; una copia mayor que el limite no se guarda.
+ */
+@Component
+public class UltimoResumenConocido {
+
+    private final int maxSnapshots;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, byte[]> snapshots = new LinkedHashMap<>(1024, 0.75f, true);
+
+    /** Suma de los bytes de todas las copias guardadas */
+    private long bytesTotales;
+
+    public UltimoResumenConocido(
+            @Value("${bff.degradado.max-snapshots:10000}") int maxSnapshots,
+            @Value("${bff.degradado.max-bytes:64MB}") DataSize maxBytes) {
+        this.maxSnapshots = maxSnapshots;
+        this.maxBytes = maxBytes.toBytes();
+    }
+
+    /**
+     * Guarda la copia del ultimo resumen exitoso de una cuenta.
+     */
+    public void guardar(Long id, ResumenWebDTO resumen) {
+        byte[] datos = ResumenCodec.serializar(resumen);
+        synchronized (snapshots) {
+            byte[] anterior = datos.length > maxBytes ? snapshots.remove(id) : snapshots.put(id, datos);
+            if (anterior != null) {
+                bytesTotales -= anterior.length;
+            }
+            if (datos.length > maxBytes) {
+                return;
+            }
+            bytesTotales += datos.length;
+            Iterator<byte[]> masAntiguos = snapshots.values().iterator();
+            while (bytesTotales > maxBytes || snapshots.size() > maxSnapshots) {
+                bytesTotales -= masAntiguos.next().length;
+                masAntiguos.remove();
+            }
+        }
+    }
+
+    /**
+     * @return Copia del ultimo resumen exitoso, o null si no hay
+     */
+    public ResumenWebDTO obtener(Long id) {
+        byte[] datos;
+        synchronized (snapshots) {
+            datos = snapshots.get(id);
+        }
+        return datos == null ? null : ResumenCodec.deserializar(datos);
+    }
+
+    public long getBytesTotales() {
+        synchronized (snapshots) {
+            return bytesTotales;
+        }
+    }
+
+    public int getTamano() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package cl.duoc.finance_bff_web.security;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Cache de autoridades (roles) por usuario con expiracion.
+ *
+ * Se usa en JwtFilter cuando el modo stateless esta deshabilitado, para no
+ * consultar el almacen de usuarios en cada peticion autenticada.
+ *
+ * Solo se guardan las autoridades y no el UserDetails completo: el
+ * AuthenticationManager borra la password del UserDetails tras el login
+ * (eraseCredentials), por lo que cachearlo romperia los logins siguientes.
+ *
+ * Nota: Esta clase NO es un @Component. Se instancia como @Bean en SecurityConfig.
+ */
+public class AutoridadesCache {
+
+    private final UserDetailsService userDetailsService;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    /**
+     * @param userDetailsService Almacen de usuarios del que se leen las autoridades
+     * @param ttl                Tiempo de vida de cada entrada en cache
+     */
+    public AutoridadesCache(UserDetailsService userDetailsService, Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Retorna las autoridades del usuario, cargandolas del almacen si no
+     * estan en cache o si la entrada expiro.
+     *
+     * @param username Nombre de usuario
+     * @return Autoridades del usuario
+     */
+    public Collection<? extends GrantedAuthority> autoridadesDe(String username) {
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = entradas.get(username);
+        if (entrada == null || entrada.expira < ahora) {
+            entrada = new Entrada(
+                    List.copyOf(userDetailsService.loadUserByUsername(username).getAuthorities()),
+                    ahora + ttlMillis);
+            entradas.put(username, entrada);
+        }
+        return entrada.autoridades;
+    }
+
+    /**
+     * Elimina la entrada de un usuario (ej: tras cambiar sus roles).
+     */
+    public void invalidar(String username) {
+        entradas.remove(username);
+    }
+
+    private record Entrada(Collection<? extends GrantedAuthority> autoridades, long expira) {
+    }
+}
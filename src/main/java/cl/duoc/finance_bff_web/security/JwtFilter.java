@@ -1,17 +1,24 @@
 package cl.duoc.finance_bff_web.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Filtro de autenticacion JWT que intercepta cada peticion HTTP.
@@ -23,11 +30,20 @@ import java.io.IOException;
  *
  * Flujo del filtro:
  * 1. Extrae el header "Authorization: Bearer {token}"
- * 2. Decodifica el token y obtiene el username
- * 3. Carga los datos del usuario desde UserDetailsService (InMemory)
- * 4. Valida la firma e integridad del token con JwtUtil
- * 5. Si es valido, establece la autenticacion en el SecurityContext
- * 6. Continua con la cadena de filtros hacia el Controller
+ * 2. Verifica firma y expiracion del token una sola vez y obtiene sus claims
+ * 3. Obtiene los roles del usuario:
+ *    - Modo stateless (bff.security.jwt.stateless=true): desde el claim "role"
+ *      del token, sin consultar el almacen de usuarios
+ *    - Modo clasico: desde AutoridadesCache (almacen de usuarios con cache).
+ *      Si el usuario del token ya no existe en el almacen se responde 401
+ *      (token valido pero sin usuario) y la peticion no continua
+ * 4. Establece la autenticacion en el SecurityContext
+ * 5. Continua con la cadena de filtros hacia el Controller
+ *
+ * Tambien se ejecuta en los dispatch ASYNC y ERROR: Spring Security 6
+ * autoriza cada dispatch y, como la politica es stateless, la autenticacion
+ * no se guarda entre dispatch. Sin esto, la segunda pasada de las respuestas
+ * asincronas (CompletableFuture, StreamingResponseBody) quedaria anonima.
  *
  * Nota: Esta clase NO es un @Component. Se instancia como @Bean
  * en SecurityConfig para evitar dependencias circulares.
@@ -35,21 +51,34 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AutoridadesCache autoridadesCache;
+    private final boolean stateless;
 
     /**
      * Constructor con inyeccion de dependencias.
      *
-     * @param jwtUtil Utilidad para operaciones con tokens JWT
-     * @param userDetailsService Servicio para cargar datos de usuario (roles, permisos)
+     * @param jwtUtil          Utilidad para operaciones con tokens JWT
+     * @param autoridadesCache Cache de roles por usuario (solo se usa en modo clasico)
+     * @param stateless        true para construir la autenticacion solo desde los claims del token
      */
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, AutoridadesCache autoridadesCache, boolean stateless) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.autoridadesCache = autoridadesCache;
+        this.stateless = stateless;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
     }
 
     /**
-     * Logica principal del filtro. Se ejecuta una vez por cada peticion HTTP.
+     * Logica principal del filtro. Se ejecuta una vez por cada dispatch de la peticion HTTP.
      *
      * Si el token es valido, el request continua autenticado hacia el Controller.
      * Si no hay token o es invalido, el request continua sin autenticacion
@@ -64,40 +93,59 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
-        // Paso 1: Extraer el token del header "Authorization: Bearer xxx"
+        // Paso 1: Extraer y verificar el token del header "Authorization: Bearer xxx"
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                claims = jwtUtil.validarYExtraerClaims(authHeader.substring(7));
             } catch (Exception e) {
                 System.out.println("Error verificando token: " + e.getMessage());
             }
         }
 
-        // Paso 2: Si se extrajo un username y no hay autenticacion previa en el contexto
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // Paso 2: Si el token es valido y no hay autenticacion previa en el contexto
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Cargar datos del usuario (roles, permisos) desde InMemoryUserDetailsManager
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            String username = claims.getSubject();
 
-            // Paso 3: Validar firma e integridad del token
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+            // Paso 3: Roles desde el token (stateless) o desde el almacen de usuarios (cache)
+            Collection<? extends GrantedAuthority> autoridades;
+            try {
+                autoridades = stateless
+                        ? autoridadesDesdeClaims(claims)
+                        : autoridadesCache.autoridadesDe(username);
+            } catch (AuthenticationException e) {
+                // UsernameNotFoundException: sin esto saldria del filtro como un 500
+                System.out.println("Usuario del token no encontrado: " + username);
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                response.getWriter().write("Error: Usuario del token no encontrado");
+                return;
+            }
 
-                // Crear token de autenticacion de Spring Security con los roles del usuario
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    username, null, autoridades);
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // Paso 4: Establecer la autenticacion en el contexto de seguridad
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            // Paso 4: Establecer la autenticacion en el contexto de seguridad
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         // Continuar con la cadena de filtros
         chain.doFilter(request, response);
     }
+
+    /**
+     * Construye las autoridades a partir del claim "role" (ej: "ROLE_CLIENTE_WEB").
+     */
+    private Collection<? extends GrantedAuthority> autoridadesDesdeClaims(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role == null) {
+            return Collections.emptyList();
+        }
+        return List.of(new SimpleGrantedAuthority(role));
+    }
 }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import io.github.cdimascio.dotenv.Dotenv;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -45,6 +46,9 @@ public class JwtUtil {
     /** Clave criptografica derivada de SECRET_KEY_STRING para firmar/verificar tokens */
     private final Key SECRET_KEY = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY_STRING));
 
+    /** Parser reutilizable (thread-safe) para no reconstruirlo en cada verificacion */
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+
     /** Tiempo de expiracion del token: 30 minutos (en milisegundos) */
     private final long EXPIRATION_TIME = 1000 * 60 * 30;
 
@@ -90,6 +94,20 @@ public class JwtUtil {
         return (extractedUsername.equals(username) && !isTokenExpired(token));
     }
 
+    /**
+     * Verifica firma y expiracion del token una sola vez y retorna sus claims.
+     *
+     * Permite a JwtFilter obtener username y rol con una unica verificacion
+     * HS512, en lugar de decodificar el token por cada claim consultado.
+     * jjwt lanza ExpiredJwtException si el token ya expiro.
+     *
+     * @param token Token JWT
+     * @return Claims del token verificado
+     */
+    public Claims validarYExtraerClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     /**
      * Extrae el username (subject) del token JWT.
      *
@@ -141,7 +159,7 @@ public class JwtUtil {
      * @return Claims del token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(SECRET_KEY).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
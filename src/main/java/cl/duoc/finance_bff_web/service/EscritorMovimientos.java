@@ -0,0 +1,149 @@
+package cl.duoc.finance_bff_web.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+
+/**
+ * Escritor tabular de movimientos (CSV o TSV) directo sobre un OutputStream.
+ *
+ * Pensado para exportaciones grandes: escribe fila por fila reutilizando
+ * el mismo StringBuilder y un buffer de escritura fijo, sin acumular
+ * la lista de movimientos en memoria.
+ *
+ * Formatos:
+ * - CSV: separador coma, con BOM UTF-8 para que Excel detecte la codificacion
+ * - TSV: separador tabulador (se pega directo en una hoja de calculo)
+ *
+ * Los campos de texto que empiezan con =, +, -, @, tabulador o retorno de
+ * carro se prefijan con una comilla simple para que Excel no los interprete
+ * como formulas.
+ */
+public class EscritorMovimientos {
+
+    private static final String[] COLUMNAS = { "id", "cuentaId", "fecha", "transaccion", "monto", "descripcion" };
+
+    private final Writer writer;
+    private final char separador;
+    private final StringBuilder fila = new StringBuilder(256);
+    private char[] buffer = new char[256];
+
+    /**
+     * @param salida  Stream de salida de la respuesta (ya comprimido si corresponde)
+     * @param formato "csv" o "tsv"
+     */
+    public EscritorMovimientos(OutputStream salida, String formato) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 8192);
+        this.separador = "tsv".equalsIgnoreCase(formato) ? '\t' : ',';
+    }
+
+    /**
+     * Escribe la fila de encabezado (solo al iniciar una descarga, no al reanudarla).
+     */
+    public void escribirEncabezado() throws IOException {
+        if (separador == ',') {
+            writer.write('\uFEFF');
+        }
+        fila.setLength(0);
+        for (int i = 0; i < COLUMNAS.length; i++) {
+            if (i > 0) {
+                fila.append(separador);
+            }
+            fila.append(COLUMNAS[i]);
+        }
+        fila.append("\r\n");
+        volcarFila();
+    }
+
+    /**
+     * Escribe un movimiento como una fila. Se usa como Consumer, por eso
+     * envuelve los errores de escritura en UncheckedIOException.
+     *
+     * @param mov Movimiento a escribir
+     */
+    public void escribir(EstadoFinancieroDTO mov) {
+        fila.setLength(0);
+        agregarNumero(mov.getId());
+        fila.append(separador);
+        agregarNumero(mov.getCuentaId());
+        fila.append(separador);
+        if (mov.getFecha() != null) {
+            fila.append(mov.getFecha());
+        }
+        fila.append(separador);
+        agregarTexto(mov.getTransaccion());
+        fila.append(separador);
+        if (mov.getMonto() != null) {
+            fila.append(BigDecimal.valueOf(mov.getMonto()).toPlainString());
+        }
+        fila.append(separador);
+        agregarTexto(mov.getDescripcion());
+        fila.append("\r\n");
+        try {
+            volcarFila();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Copia la fila al buffer de caracteres reutilizable y la escribe,
+     * sin crear un String por fila.
+     */
+    private void volcarFila() throws IOException {
+        int largo = fila.length();
+        if (buffer.length < largo) {
+            buffer = new char[Math.max(largo, buffer.length * 2)];
+        }
+        fila.getChars(0, largo, buffer, 0);
+        writer.write(buffer, 0, largo);
+    }
+
+    private void agregarNumero(Long valor) {
+        if (valor != null) {
+            fila.append(valor.longValue());
+        }
+    }
+
+    private void agregarTexto(String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return;
+        }
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == separador || c == '"' || c == '\n' || c == '\r';
+        }
+        char primero = valor.charAt(0);
+        boolean formula = primero == '=' || primero == '+' || primero == '-' || primero == '@'
+                || primero == '\t' || primero == '\r';
+
+        if (comillas) {
+            fila.append('"');
+        }
+        if (formula) {
+            fila.append('\'');
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                fila.append('"');
+            }
+            fila.append(c);
+        }
+        if (comillas) {
+            fila.append('"');
+        }
+    }
+}
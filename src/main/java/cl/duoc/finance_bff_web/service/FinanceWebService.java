@@ -1,5 +1,9 @@
 package cl.duoc.finance_bff_web.service;
 
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
 import cl.duoc.finance_bff_web.model.ResumenWebDTO;
 
 /**
@@ -20,10 +24,40 @@ public interface FinanceWebService {
      * 1. GET /api/v1/cuentas/{id} - Datos de la cuenta
      * 2. GET /api/v1/cuentas/{id}/transacciones - Movimientos de la cuenta
      *
-     * Combina ambas respuestas en un unico ResumenWebDTO.
+     * Combina ambas respuestas en un unico ResumenWebDTO. Si el Core no
+     * responde, retorna el resumen de contingencia (isContingencia() = true).
      *
      * @param id Identificador de la cuenta a consultar
      * @return ResumenWebDTO con los datos combinados y mensaje de estado
      */
     ResumenWebDTO obtenerResumenCuenta(Long id);
+
+    /**
+     * Obtiene el resumen de contingencia de una cuenta sin llamar al backend.
+     *
+     * Se usa cuando el BFF no tiene capacidad para atender la consulta
+     * (cola de trabajo saturada o limite de concurrencia alcanzado).
+     *
+     * @param id Identificador de la cuenta a consultar
+     * @return ResumenWebDTO de contingencia con mensaje de servicio no disponible
+     */
+    ResumenWebDTO obtenerResumenContingencia(Long id);
+
+    /**
+     * Recorre los movimientos de una cuenta pagina por pagina, entregando
+     * cada uno al consumidor sin acumular la lista completa en memoria.
+     *
+     * Llama a GET /api/v1/cuentas/{id}/transacciones?page=N&size=M[&desde=...&hasta=...&despuesDe=...]
+     * hasta recibir una pagina incompleta. Los movimientos se esperan ordenados
+     * por id ascendente, que es lo que permite reanudar desde el ultimo id recibido.
+     *
+     * @param id         Identificador de la cuenta
+     * @param desde      Fecha minima (inclusive), o null
+     * @param hasta      Fecha maxima (inclusive), o null
+     * @param despuesDe  Id del ultimo movimiento ya entregado (para reanudar una descarga), o null
+     * @param consumidor Receptor de cada movimiento
+     * @return Cantidad de movimientos entregados
+     */
+    long recorrerMovimientos(Long id, LocalDate desde, LocalDate hasta, Long despuesDe,
+            Consumer<EstadoFinancieroDTO> consumidor);
 }
@@ -1,10 +1,13 @@
 package cl.duoc.finance_bff_web.service;
 
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+import cl.duoc.finance_bff_web.config.FormatoWire;
 import cl.duoc.finance_bff_web.model.CuentaDTO;
 import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
 import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+import cl.duoc.finance_bff_web.resilience.UltimoResumenConocido;
+import cl.duoc.finance_bff_web.security.JwtUtil;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -15,29 +18,57 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @Service
 public class FinanceWebServiceImpl implements FinanceWebService {
 
-    @Autowired
-    private RestTemplate restTemplate;
+    private final RestTemplate restTemplate;
 
     // INYECTAMOS LA UTILIDAD PARA FABRICAR TOKENS (Faltaba en este BFF)
-    @Autowired
-    private cl.duoc.finance_bff_web.security.JwtUtil jwtUtil;
+    private final JwtUtil jwtUtil;
 
-    @Value("${backend.url:http://localhost:8080/api/v1}")
-    private String BACKEND_URL;
+    // Cache de resumenes exitosos (la lee FinanceWebController y la llena el warm-up)
+    private final ResumenCache resumenCache;
+
+    // Copia del ultimo resumen exitoso por cuenta, usada por el fallback
+    private final UltimoResumenConocido ultimoResumenConocido;
+
+    private final String BACKEND_URL;
+
+    // Tamano de pagina al recorrer movimientos para la exportacion
+    private final int tamanoPaginaExport;
+
+    // Formato pedido a finance-batch (json, cbor o smile) con JSON como respaldo
+    private final String formatoWire;
+
+    public FinanceWebServiceImpl(RestTemplate restTemplate, JwtUtil jwtUtil, ResumenCache resumenCache,
+            UltimoResumenConocido ultimoResumenConocido,
+            @Value("${backend.url:http://localhost:8080/api/v1}") String backendUrl,
+            @Value("${bff.export.page-size:500}") int tamanoPaginaExport,
+            @Value("${backend.wire-format:json}") String formatoWire) {
+        this.restTemplate = restTemplate;
+        this.jwtUtil = jwtUtil;
+        this.resumenCache = resumenCache;
+        this.ultimoResumenConocido = ultimoResumenConocido;
+        this.BACKEND_URL = backendUrl;
+        this.tamanoPaginaExport = tamanoPaginaExport;
+        this.formatoWire = formatoWire;
+    }
 
     /**
      * Extrae el token si viene de Postman, o fabrica uno interno si viene de GitHub
      */
     private HttpHeaders getHeadersConToken() {
         HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(FormatoWire.desde(formatoWire).getAccept());
         try {
             // 1. Intentar sacar el token si la petición viene desde Postman (Header explícito)
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -46,6 +77,12 @@ public class FinanceWebServiceImpl implements FinanceWebService {
                 return headers;
             }
 
+            // 1b. Sin peticion HTTP (warm-up en segundo plano): token interno del BFF
+            if (attributes == null) {
+                headers.set("Authorization", "Bearer " + jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB"));
+                return headers;
+            }
+
             // 2. Si venimos desde el navegador (GitHub OAuth2), fabricamos el pase VIP
             org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
             if (auth != null && auth.getPrincipal() instanceof org.springframework.security.oauth2.core.user.OAuth2User) {
@@ -82,6 +119,8 @@ public class FinanceWebServiceImpl implements FinanceWebService {
 
             resumen.setMovimientos(responseMovimientos.getBody());
             resumen.setMensaje("Consulta Exitosa - Cliente Web (Datos Completos)");
+            resumenCache.guardar(id, resumen);
+            ultimoResumenConocido.guardar(id, resumen);
 
         } catch (HttpClientErrorException e) {
             // Manejamos los errores limpios del Core sin activar el cortacircuitos
@@ -97,17 +136,99 @@ public class FinanceWebServiceImpl implements FinanceWebService {
         return resumen;
     }
 
+    @Override
+    public ResumenWebDTO obtenerResumenContingencia(Long id) {
+        return fallbackObtenerResumenCuenta(id, new RejectedExecutionException("Capacidad del BFF agotada"));
+    }
+
+    @Override
+    public long recorrerMovimientos(Long id, LocalDate desde, LocalDate hasta, Long despuesDe,
+            Consumer<EstadoFinancieroDTO> consumidor) {
+        HttpEntity<String> entity = new HttpEntity<>(getHeadersConToken());
+        // Al reanudar se pide al Core solo lo posterior al ultimo id recibido (paginacion por clave),
+        // asi la reanudacion cuesta lo que falta y no vuelve a recorrer lo ya entregado
+        int pagina = 0;
+        long entregados = 0;
+        List<EstadoFinancieroDTO> loteAnterior = null;
+
+        while (true) {
+            UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(BACKEND_URL + "/cuentas/" + id + "/transacciones")
+                    .queryParam("page", pagina)
+                    .queryParam("size", tamanoPaginaExport);
+            if (desde != null) {
+                uri.queryParam("desde", desde);
+            }
+            if (hasta != null) {
+                uri.queryParam("hasta", hasta);
+            }
+            if (despuesDe != null) {
+                uri.queryParam("despuesDe", despuesDe);
+            }
+
+            List<EstadoFinancieroDTO> lote = restTemplate.exchange(
+                uri.toUriString(), HttpMethod.GET, entity, new ParameterizedTypeReference<List<EstadoFinancieroDTO>>() {}
+            ).getBody();
+            if (lote == null || lote.isEmpty()) {
+                break;
+            }
+
+            // Si el Core ignora la paginacion repite la misma pagina: se corta para no duplicar filas.
+            // Se compara la pagina completa (no solo un id, que puede venir nulo)
+            if (lote.equals(loteAnterior)) {
+                break;
+            }
+            loteAnterior = lote;
+
+            for (EstadoFinancieroDTO mov : lote) {
+                // Filtros locales por si el Core ignora desde/hasta o despuesDe
+                if (enRango(mov.getFecha(), desde, hasta) && esPosterior(mov.getId(), despuesDe)) {
+                    consumidor.accept(mov);
+                    entregados++;
+                }
+            }
+
+            if (lote.size() != tamanoPaginaExport) {
+                break;
+            }
+            pagina++;
+        }
+        return entregados;
+    }
+
+    private static boolean enRango(LocalDate fecha, LocalDate desde, LocalDate hasta) {
+        if (fecha == null) {
+            return desde == null && hasta == null;
+        }
+        return (desde == null || !fecha.isBefore(desde)) && (hasta == null || !fecha.isAfter(hasta));
+    }
+
+    private static boolean esPosterior(Long idMovimiento, Long despuesDe) {
+        // Un movimiento sin id no se puede ubicar respecto del punto de reanudacion
+        return despuesDe == null || (idMovimiento != null && idMovimiento > despuesDe);
+    }
+
     /**
      * MÉTODO DE FALLBACK (Se activa si el Core se apaga o hay Timeout)
+     * Retorna el ultimo resumen conocido de la cuenta si existe; si no, un resumen vacio.
      */
     public ResumenWebDTO fallbackObtenerResumenCuenta(Long id, Throwable t) {
         System.err.println("¡Circuit Breaker activado en BFF Web! Falló la comunicación: " + t.getMessage());
+
+        // MODO DEGRADADO: si hay un ultimo resumen valido, se entrega marcado como desactualizado
+        ResumenWebDTO ultimo = ultimoResumenConocido.obtener(id);
+        if (ultimo != null) {
+            ultimo.setDesactualizado(true);
+            ultimo.setContingencia(true);
+            ultimo.setMensaje("Datos en modo degradado - Última actualización: " + ultimo.getFechaConsulta());
+            return ultimo;
+        }
         
         ResumenWebDTO resumenFallback = new ResumenWebDTO();
         resumenFallback.setFechaConsulta(LocalDateTime.now());
         resumenFallback.setMensaje("Servicios web temporalmente no disponibles. Por favor, intente más tarde.");
         resumenFallback.setCuenta(null);
         resumenFallback.setMovimientos(Collections.emptyList());
+        resumenFallback.setContingencia(true);
         
         return resumenFallback;
     }
@@ -0,0 +1,227 @@
+package cl.duoc.finance_bff_web.tls;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * SSLEngine que delega en el motor JSSE real y mide cada handshake.
+ *
+ * El handshake empieza con el primer wrap/unwrap (llegada del ClientHello)
+ * y termina cuando el motor reporta HandshakeStatus.FINISHED. Solo se mide
+ * el handshake inicial de cada conexion. En ese momento
+ * se considera "reanudado" si la sesion TLS fue creada antes del inicio del
+ * handshake (la sesion venia de la cache o de un session ticket) y "completo"
+ * si la sesion es nueva.
+ *
+ * Metricas registradas en el MeterRegistry recibido (ver TlsMedicionImplementation):
+ * - bff.tls.handshakes{tipo=completo|reanudado}: handshakes terminados
+ * - bff.tls.handshake.duracion{tipo=completo|reanudado}: latencia del handshake
+ */
+class MedicionSslEngine extends SSLEngine {
+
+    private final SSLEngine delegado;
+    private final MeterRegistry registry;
+    private long inicioHandshake;
+    private long inicioHandshakeMs;
+    private boolean medido;
+
+    MedicionSslEngine(SSLEngine delegado, MeterRegistry registry) {
+        super(delegado.getPeerHost(), delegado.getPeerPort());
+        this.delegado = delegado;
+        this.registry = registry;
+    }
+
+    @Override
+    public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst) throws SSLException {
+        marcarInicio();
+        return observar(delegado.wrap(srcs, offset, length, dst));
+    }
+
+    @Override
+    public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
+        marcarInicio();
+        return observar(delegado.unwrap(src, dsts, offset, length));
+    }
+
+    private void marcarInicio() {
+        if (inicioHandshake == 0 && !medido) {
+            inicioHandshake = System.nanoTime();
+            inicioHandshakeMs = System.currentTimeMillis();
+        }
+    }
+
+    private SSLEngineResult observar(SSLEngineResult resultado) {
+        if (resultado.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED
+                && inicioHandshake != 0 && !medido) {
+            long duracion = System.nanoTime() - inicioHandshake;
+            boolean reanudado = delegado.getSession().getCreationTime() < inicioHandshakeMs;
+            registrarHandshake(reanudado, duracion);
+            medido = true;
+        }
+        return resultado;
+    }
+
+    private void registrarHandshake(boolean reanudado, long duracionNanos) {
+        String tipo = reanudado ? "reanudado" : "completo";
+        registry.counter("bff.tls.handshakes", "tipo", tipo).increment();
+        registry.timer("bff.tls.handshake.duracion", "tipo", tipo).record(duracionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Runnable getDelegatedTask() {
+        return delegado.getDelegatedTask();
+    }
+
+    @Override
+    public void closeInbound() throws SSLException {
+        delegado.closeInbound();
+    }
+
+    @Override
+    public boolean isInboundDone() {
+        return delegado.isInboundDone();
+    }
+
+    @Override
+    public void closeOutbound() {
+        delegado.closeOutbound();
+    }
+
+    @Override
+    public boolean isOutboundDone() {
+        return delegado.isOutboundDone();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegado.getSupportedCipherSuites();
+    }
+
+    @Override
+    public String[] getEnabledCipherSuites() {
+        return delegado.getEnabledCipherSuites();
+    }
+
+    @Override
+    public void setEnabledCipherSuites(String[] suites) {
+        delegado.setEnabledCipherSuites(suites);
+    }
+
+    @Override
+    public String[] getSupportedProtocols() {
+        return delegado.getSupportedProtocols();
+    }
+
+    @Override
+    public String[] getEnabledProtocols() {
+        return delegado.getEnabledProtocols();
+    }
+
+    @Override
+    public void setEnabledProtocols(String[] protocols) {
+        delegado.setEnabledProtocols(protocols);
+    }
+
+    @Override
+    public SSLSession getSession() {
+        return delegado.getSession();
+    }
+
+    @Override
+    public SSLSession getHandshakeSession() {
+        return delegado.getHandshakeSession();
+    }
+
+    @Override
+    public void beginHandshake() throws SSLException {
+        delegado.beginHandshake();
+    }
+
+    @Override
+    public SSLEngineResult.HandshakeStatus getHandshakeStatus() {
+        return delegado.getHandshakeStatus();
+    }
+
+    @Override
+    public void setUseClientMode(boolean mode) {
+        delegado.setUseClientMode(mode);
+    }
+
+    @Override
+    public boolean getUseClientMode() {
+        return delegado.getUseClientMode();
+    }
+
+    @Override
+    public void setNeedClientAuth(boolean need) {
+        delegado.setNeedClientAuth(need);
+    }
+
+    @Override
+    public boolean getNeedClientAuth() {
+        return delegado.getNeedClientAuth();
+    }
+
+    @Override
+    public void setWantClientAuth(boolean want) {
+        delegado.setWantClientAuth(want);
+    }
+
+    @Override
+    public boolean getWantClientAuth() {
+        return delegado.getWantClientAuth();
+    }
+
+    @Override
+    public void setEnableSessionCreation(boolean flag) {
+        delegado.setEnableSessionCreation(flag);
+    }
+
+    @Override
+    public boolean getEnableSessionCreation() {
+        return delegado.getEnableSessionCreation();
+    }
+
+    @Override
+    public SSLParameters getSSLParameters() {
+        return delegado.getSSLParameters();
+    }
+
+    @Override
+    public void setSSLParameters(SSLParameters params) {
+        delegado.setSSLParameters(params);
+    }
+
+    // --- ALPN (necesario para HTTP/2) ---
+
+    @Override
+    public String getApplicationProtocol() {
+        return delegado.getApplicationProtocol();
+    }
+
+    @Override
+    public String getHandshakeApplicationProtocol() {
+        return delegado.getHandshakeApplicationProtocol();
+    }
+
+    @Override
+    public void setHandshakeApplicationProtocolSelector(BiFunction<SSLEngine, List<String>, String> selector) {
+        delegado.setHandshakeApplicationProtocolSelector(
+                selector == null ? null : (engine, protocolos) -> selector.apply(this, protocolos));
+    }
+
+    @Override
+    public BiFunction<SSLEngine, List<String>, String> getHandshakeApplicationProtocolSelector() {
+        return delegado.getHandshakeApplicationProtocolSelector();
+    }
+}
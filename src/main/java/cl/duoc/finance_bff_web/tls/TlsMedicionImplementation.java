@@ -0,0 +1,129 @@
+package cl.duoc.finance_bff_web.tls;
+
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.tomcat.util.net.SSLContext;
+import org.apache.tomcat.util.net.SSLHostConfigCertificate;
+import org.apache.tomcat.util.net.SSLUtil;
+import org.apache.tomcat.util.net.jsse.JSSEImplementation;
+import org.apache.tomcat.util.net.jsse.JSSEUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Implementacion TLS de Tomcat basada en JSSE con medicion de handshakes.
+ *
+ * Se registra en el conector HTTPS con la propiedad sslImplementationName
+ * (ver TlsConfig). Se comporta igual que la implementacion JSSE por defecto,
+ * salvo que cada SSLEngine creado se envuelve en MedicionSslEngine para
+ * contar handshakes completos vs reanudados y medir su latencia.
+ *
+ * La cache de sesiones no se toca aqui: SSLUtilBase aplica sessionCacheSize
+ * y sessionTimeout del SSLHostConfig con que se construye el contexto, y
+ * TlsConfig se encarga de que el SSLHostConfig los tenga (tambien el que
+ * Spring Boot crea al recargar el keystore).
+ *
+ * Tomcat instancia esta clase por nombre con el constructor sin argumentos,
+ * que usa el registro global de Micrometer: Spring Boot agrega a ese registro
+ * el MeterRegistry de la aplicacion (management.metrics.use-global-registry),
+ * asi las metricas quedan en Actuator. El resto de la cadena (contexto y
+ * SSLEngine) recibe el registro por constructor.
+ */
+public class TlsMedicionImplementation extends JSSEImplementation {
+
+    private final MeterRegistry registry;
+
+    public TlsMedicionImplementation() {
+        this(Metrics.globalRegistry);
+    }
+
+    TlsMedicionImplementation(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public SSLUtil getSSLUtil(SSLHostConfigCertificate certificate) {
+        return new MedicionJsseUtil(certificate, registry);
+    }
+
+    static class MedicionJsseUtil extends JSSEUtil {
+
+        private final MeterRegistry registry;
+
+        MedicionJsseUtil(SSLHostConfigCertificate certificate, MeterRegistry registry) {
+            super(certificate);
+            this.registry = registry;
+        }
+
+        @Override
+        public SSLContext createSSLContextInternal(List<String> negotiableProtocols) throws NoSuchAlgorithmException {
+            return new MedicionSslContext(super.createSSLContextInternal(negotiableProtocols), registry);
+        }
+    }
+
+    /**
+     * SSLContext de Tomcat que delega en el contexto JSSE y envuelve los SSLEngine.
+     */
+    static class MedicionSslContext implements SSLContext {
+
+        private final SSLContext delegado;
+        private final MeterRegistry registry;
+
+        MedicionSslContext(SSLContext delegado, MeterRegistry registry) {
+            this.delegado = delegado;
+            this.registry = registry;
+        }
+
+        @Override
+        public void init(KeyManager[] kms, TrustManager[] tms, SecureRandom sr) throws KeyManagementException {
+            delegado.init(kms, tms, sr);
+        }
+
+        @Override
+        public void destroy() {
+            delegado.destroy();
+        }
+
+        @Override
+        public SSLSessionContext getServerSessionContext() {
+            return delegado.getServerSessionContext();
+        }
+
+        @Override
+        public SSLEngine createSSLEngine() {
+            return new MedicionSslEngine(delegado.createSSLEngine(), registry);
+        }
+
+        @Override
+        public SSLServerSocketFactory getServerSocketFactory() {
+            return delegado.getServerSocketFactory();
+        }
+
+        @Override
+        public SSLParameters getSupportedSSLParameters() {
+            return delegado.getSupportedSSLParameters();
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return delegado.getCertificateChain(alias);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegado.getAcceptedIssuers();
+        }
+    }
+}
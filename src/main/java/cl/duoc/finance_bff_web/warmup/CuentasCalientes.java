@@ -0,0 +1,172 @@
+package cl.duoc.finance_bff_web.warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Top-K aproximado de las cuentas mas consultadas (algoritmo Space-Saving).
+ *
+ * Mantiene como maximo "capacidad" contadores: cuando llega una cuenta que
+ * no esta siendo contada y no hay espacio, reemplaza a la de menor conteo
+ * heredando su valor + 1. Asi la memoria es fija sin importar cuantas
+ * cuentas distintas se consulten, y las cuentas frecuentes nunca se pierden.
+ *
+ * La ruta de la peticion no toma locks ni recorre los contadores: solo se
+ * registra una de cada "muestreo" consultas, y esa muestra se agrega a una
+ * cola sin bloqueos de tamano acotado (si esta llena, la muestra se
+ * descarta). Una tarea programada vacia la cola y la consolida en los
+ * contadores bajo el lock, fuera del hilo de la peticion. Los contadores se
+ * reducen a la mitad periodicamente para que el ranking refleje el trafico reciente.
+ *
+ * Configuracion (application.properties):
+ * - bff.warmup.top-k: cantidad de cuentas calientes a conservar
+ * - bff.warmup.sample-rate: se registra 1 de cada N consultas
+ * - bff.warmup.buffer-size: muestras pendientes de consolidar como maximo
+ * - bff.warmup.merge-interval: cada cuantos ms se consolidan las muestras
+ * - bff.warmup.decay-interval: cada cuantos ms se reducen los contadores
+ */
+@Component
+public class CuentasCalientes {
+
+    private final int topK;
+    private final int capacidad;
+    private final int muestreo;
+    private final int maxPendientes;
+    private final Map<Long, Long> contadores;
+
+    // Muestras de la ruta de la peticion aun no consolidadas en los contadores
+    private final ConcurrentLinkedQueue<Long> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cantidadPendientes = new AtomicInteger();
+
+    public CuentasCalientes(
+            @Value("${bff.warmup.top-k:100}") int topK,
+            @Value("${bff.warmup.sample-rate:4}") int muestreo,
+            @Value("${bff.warmup.buffer-size:4096}") int maxPendientes) {
+        this.topK = topK;
+        // Space-Saving necesita mas contadores que K para que el top-K sea preciso
+        this.capacidad = topK * 4;
+        this.muestreo = Math.max(1, muestreo);
+        this.maxPendientes = maxPendientes;
+        this.contadores = new HashMap<>(capacidad * 2);
+    }
+
+    /**
+     * Registra una consulta a la cuenta indicada (con muestreo). No bloquea:
+     * la muestra se consolida despues en {@link #consolidar()}.
+     *
+     * @param id Identificador de la cuenta consultada
+     */
+    public void registrar(Long id) {
+        if (muestreo > 1 && ThreadLocalRandom.current().nextInt(muestreo) != 0) {
+            return;
+        }
+        if (cantidadPendientes.incrementAndGet() > maxPendientes) {
+            cantidadPendientes.decrementAndGet();
+            return;
+        }
+        pendientes.offer(id);
+    }
+
+    /**
+     * Consolida en los contadores las muestras pendientes.
+     */
+    @Scheduled(fixedDelayString = "${bff.warmup.merge-interval:1000}")
+    public void consolidar() {
+        Map<Long, Long> lote = new HashMap<>();
+        Long id;
+        while ((id = pendientes.poll()) != null) {
+            cantidadPendientes.decrementAndGet();
+            lote.merge(id, 1L, Long::sum);
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            lote.forEach(this::sumar);
+        }
+    }
+
+    /**
+     * Agrega cuentas con un conteo inicial (ej: lista persistida del arranque anterior).
+     *
+     * @param ids Cuentas a sembrar, en orden de prioridad
+     */
+    public synchronized void sembrar(List<Long> ids) {
+        long peso = ids.size();
+        for (Long id : ids) {
+            sumar(id, peso--);
+        }
+    }
+
+    /**
+     * Retorna las K cuentas con mayor conteo, de mayor a menor.
+     *
+     * @return Lista de ids de cuentas calientes
+     */
+    public List<Long> obtenerTopK() {
+        consolidar();
+        synchronized (this) {
+            return ordenarTopK();
+        }
+    }
+
+    private List<Long> ordenarTopK() {
+        List<Map.Entry<Long, Long>> orden = new ArrayList<>(contadores.entrySet());
+        orden.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        List<Long> top = new ArrayList<>(Math.min(topK, orden.size()));
+        for (int i = 0; i < orden.size() && i < topK; i++) {
+            top.add(orden.get(i).getKey());
+        }
+        return top;
+    }
+
+    /**
+     * Reduce todos los contadores a la mitad (ventana movil del ranking).
+     */
+    @Scheduled(fixedDelayString = "${bff.warmup.decay-interval:600000}")
+    public synchronized void decaer() {
+        contadores.replaceAll((id, conteo) -> conteo / 2);
+        contadores.values().removeIf(conteo -> conteo == 0);
+    }
+
+    int getPendientes() {
+        return cantidadPendientes.get();
+    }
+
+    synchronized int getContadores() {
+        return contadores.size();
+    }
+
+    // Se llama con el lock tomado (consolidar, sembrar)
+    private void sumar(Long id, long cantidad) {
+        Long actual = contadores.get(id);
+        if (actual != null) {
+            contadores.put(id, actual + cantidad);
+            return;
+        }
+        if (contadores.size() < capacidad) {
+            contadores.put(id, cantidad);
+            return;
+        }
+        // Reemplaza la cuenta con menor conteo (hereda su conteo como cota de error)
+        Long menorId = null;
+        long menor = Long.MAX_VALUE;
+        for (Map.Entry<Long, Long> e : contadores.entrySet()) {
+            if (e.getValue() < menor) {
+                menor = e.getValue();
+                menorId = e.getKey();
+            }
+        }
+        contadores.remove(menorId);
+        contadores.put(id, menor + cantidad);
+    }
+}
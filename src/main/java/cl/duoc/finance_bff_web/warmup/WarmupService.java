@@ -0,0 +1,216 @@
+package cl.duoc.finance_bff_web.warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+import cl.duoc.finance_bff_web.service.FinanceWebService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Precalentamiento de la cache con las cuentas mas consultadas.
+ *
+ * Evita que, tras un despliegue o una ejecucion del batch, las primeras
+ * consultas a las cuentas populares fallen en cache y lleguen todas juntas
+ * a finance-batch.
+ *
+ * Funcionamiento:
+ * 1. CuentasCalientes mantiene el top-K de cuentas consultadas
+ * 2. El top-K se guarda periodicamente (y al apagar) en un archivo local
+ * 3. Al arrancar, como ApplicationRunner, carga el archivo y precarga esos
+ *    resumenes a tasa limitada. Las cuentas que ya estan en el nivel
+ *    compartido de la cache no se piden a finance-batch. Spring Boot publica
+ *    el estado de readiness ACCEPTING_TRAFFIC solo despues de los runners,
+ *    por lo que el probe /actuator/health/readiness no reporta listo hasta terminar
+ * 4. Al recibir la senal de batch completado (BatchCompletadoListener)
+ *    se vuelven a pedir las cuentas para refrescar los datos recalculados.
+ *    El refresco corre en warmupExecutor con un tiempo maximo, no en el
+ *    hilo del listener de Kafka (que dejaria de hacer poll mientras tanto).
+ *    Nunca se invalida antes de pedir: guardar() sobrescribe la entrada, asi
+ *    el nivel compartido no queda vacio mientras se refresca. Con nivel
+ *    compartido el refresco lo hace una sola replica, que luego avisa a las
+ *    demas para que descarten su copia cercana
+ *
+ * Configuracion (application.properties):
+ * - bff.warmup.enabled: habilita el precalentamiento
+ * - bff.warmup.file: archivo local con las cuentas calientes
+ * - bff.warmup.rate-per-second: consultas por segundo durante la precarga
+ * - bff.warmup.startup-timeout: tiempo maximo de precarga al arrancar (ms)
+ * - bff.warmup.batch-timeout: tiempo maximo del refresco tras el batch (ms)
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private final CuentasCalientes cuentasCalientes;
+    private final FinanceWebService financeWebService;
+    private final ResumenCache resumenCache;
+    private final ThreadPoolTaskExecutor warmupExecutor;
+
+    @Value("${bff.warmup.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${bff.warmup.file:./data/cuentas-calientes.txt}")
+    private String archivo;
+
+    @Value("${bff.warmup.rate-per-second:20}")
+    private double tasaPorSegundo;
+
+    @Value("${bff.warmup.startup-timeout:30000}")
+    private long timeoutArranqueMs;
+
+    @Value("${bff.warmup.batch-timeout:120000}")
+    private long timeoutBatchMs;
+
+    public WarmupService(CuentasCalientes cuentasCalientes, FinanceWebService financeWebService,
+            ResumenCache resumenCache, @Qualifier("warmupExecutor") ThreadPoolTaskExecutor warmupExecutor) {
+        this.cuentasCalientes = cuentasCalientes;
+        this.financeWebService = financeWebService;
+        this.resumenCache = resumenCache;
+        this.warmupExecutor = warmupExecutor;
+    }
+
+    /**
+     * Precarga al arrancar, antes de que la aplicacion reporte readiness.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            return;
+        }
+        List<Long> ids = cargarArchivo();
+        cuentasCalientes.sembrar(ids);
+        int precargadas = precargar(ids, timeoutArranqueMs, false);
+        System.out.println(">> Warm-up: " + precargadas + " de " + ids.size() + " cuentas calientes precargadas");
+    }
+
+    /**
+     * Programa el refresco de las cuentas calientes tras una ejecucion de
+     * finance-batch y retorna de inmediato. Si ya hay un refresco en espera
+     * la senal se descarta: ese refresco leera los mismos datos nuevos.
+     */
+    public void precalentarTrasBatch() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            warmupExecutor.execute(this::refrescarTrasBatch);
+        } catch (RejectedExecutionException e) {
+            System.out.println(">> Warm-up post-batch ya programado, se descarta la senal repetida");
+        }
+    }
+
+    private void refrescarTrasBatch() {
+        List<Long> ids = cuentasCalientes.obtenerTopK();
+        int precargadas = precargar(ids, timeoutBatchMs, true);
+        System.out.println(">> Warm-up post-batch: " + precargadas + " de " + ids.size() + " cuentas refrescadas");
+    }
+
+    /**
+     * Guarda periodicamente el top-K en el archivo local.
+     */
+    @Scheduled(fixedDelayString = "${bff.warmup.persist-interval:300000}")
+    public void persistir() {
+        if (!habilitado) {
+            return;
+        }
+        List<String> lineas = new ArrayList<>();
+        cuentasCalientes.obtenerTopK().forEach(id -> lineas.add(String.valueOf(id)));
+        try {
+            Path destino = Paths.get(archivo);
+            if (destino.getParent() != null) {
+                Files.createDirectories(destino.getParent());
+            }
+            Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+            Files.write(temporal, lineas);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error guardando cuentas calientes: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void alApagar() {
+        persistir();
+    }
+
+    /**
+     * Consulta cada cuenta a la tasa configurada; el servicio deja en cache
+     * los resumenes exitosos.
+     *
+     * @param refrescar false para reutilizar lo que ya esta en cache (arranque);
+     *                  true para pedir siempre el dato nuevo (tras el batch)
+     * @return Cantidad de cuentas precargadas con exito
+     */
+    private int precargar(List<Long> ids, long timeoutMs, boolean refrescar) {
+        long pausaNanos = (long) (TimeUnit.SECONDS.toNanos(1) / tasaPorSegundo);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int exitosas = 0;
+
+        for (Long id : ids) {
+            if (System.nanoTime() - limite > 0) {
+                break;
+            }
+            if (!refrescar && resumenCache.obtener(id) != null) {
+                // Otra replica ya la dejo en el nivel compartido: no se consulta el Core
+                exitosas++;
+                continue;
+            }
+            long inicio = System.nanoTime();
+            try {
+                ResumenWebDTO resumen = financeWebService.obtenerResumenCuenta(id);
+                if (resumen.getCuenta() != null) {
+                    exitosas++;
+                    if (refrescar) {
+                        resumenCache.avisarActualizacion(id);
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error precargando cuenta " + id + ": " + e.getMessage());
+            }
+            long restante = pausaNanos - (System.nanoTime() - inicio);
+            if (restante > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(restante);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return exitosas;
+    }
+
+    private List<Long> cargarArchivo() {
+        List<Long> ids = new ArrayList<>();
+        Path origen = Paths.get(archivo);
+        if (!Files.exists(origen)) {
+            return ids;
+        }
+        try {
+            for (String linea : Files.readAllLines(origen)) {
+                if (!linea.isBlank()) {
+                    ids.add(Long.parseLong(linea.trim()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error leyendo cuentas calientes: " + e.getMessage());
+        }
+        return ids;
+    }
+}
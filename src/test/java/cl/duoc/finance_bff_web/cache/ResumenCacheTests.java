@@ -0,0 +1,194 @@
+package cl.duoc.finance_bff_web.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+import cl.duoc.finance_bff_web.kafka.InvalidacionCacheProducer;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+/**
+ * Cache de dos niveles con dos "replicas" (dos ResumenCache) que comparten
+ * el almacen embebido AlmacenCompartidoEnMemoria.
+ */
+class ResumenCacheTests {
+
+	private AlmacenCompartidoEnMemoria almacen;
+	private ResumenCache replicaA;
+	private ResumenCache replicaB;
+
+	@BeforeEach
+	void crearReplicas() {
+		almacen = new AlmacenCompartidoEnMemoria(100);
+		replicaA = crearCache(almacen);
+		replicaB = crearCache(almacen);
+	}
+
+	@Test
+	void guardarLlenaAmbosNiveles() {
+		replicaA.guardar(42L, ResumenCodecTests.resumenCompleto());
+
+		assertThat(replicaA.getTamano()).isEqualTo(1);
+		assertThat(almacen.obtener(ResumenCodec.clave(42L))).isNotNull();
+	}
+
+	@Test
+	void otraReplicaLeeDelNivelCompartidoYLlenaSuNivelCercano() {
+		ResumenWebDTO original = ResumenCodecTests.resumenCompleto();
+		replicaA.guardar(42L, original);
+
+		ResumenWebDTO leido = replicaB.obtener(42L);
+
+		assertThat(leido).usingRecursiveComparison().isEqualTo(original);
+		assertThat(replicaB.getTamano()).isEqualTo(1);
+	}
+
+	@Test
+	void guardarSobrescribeSinInvalidar() {
+		replicaA.guardar(42L, ResumenCodecTests.resumenCompleto());
+		ResumenWebDTO nuevo = ResumenCodecTests.resumenCompleto();
+		nuevo.setMensaje("recalculado");
+
+		replicaA.guardar(42L, nuevo);
+
+		assertThat(replicaB.obtener(42L).getMensaje()).isEqualTo("recalculado");
+	}
+
+	@Test
+	void invalidarEliminaAmbosNiveles() {
+		replicaA.guardar(42L, ResumenCodecTests.resumenCompleto());
+
+		replicaA.invalidar(42L);
+
+		assertThat(replicaA.obtener(42L)).isNull();
+		assertThat(replicaB.obtener(42L)).isNull();
+		assertThat(almacen.obtener(ResumenCodec.clave(42L))).isNull();
+	}
+
+	@Test
+	void invalidarLocalConservaElNivelCompartido() {
+		replicaA.guardar(42L, ResumenCodecTests.resumenCompleto());
+		replicaB.obtener(42L);
+
+		replicaB.invalidarLocal(42L);
+
+		assertThat(replicaB.getTamano()).isZero();
+		assertThat(replicaB.obtener(42L)).isNotNull();
+	}
+
+	@Test
+	void entradaConVersionAntiguaSeTrataComoFallo() {
+		byte[] datos = ResumenCodec.serializar(ResumenCodecTests.resumenCompleto());
+		datos[0] = (byte) (ResumenCodec.VERSION + 1);
+		almacen.guardar(ResumenCodec.clave(42L), datos, Duration.ofMinutes(1));
+
+		assertThat(replicaA.obtener(42L)).isNull();
+	}
+
+	@Test
+	void falloDelAlmacenSeTrataComoFalloDeCache() {
+		ResumenCache cache = crearCache(new AlmacenCompartido() {
+			@Override
+			public byte[] obtener(String clave) {
+				throw new IllegalStateException("almacen caido");
+			}
+
+			@Override
+			public void guardar(String clave, byte[] valor, Duration ttl) {
+				throw new IllegalStateException("almacen caido");
+			}
+
+			@Override
+			public void eliminar(String clave) {
+				throw new IllegalStateException("almacen caido");
+			}
+		});
+
+		cache.guardar(42L, ResumenCodecTests.resumenCompleto());
+		cache.invalidarLocal(42L);
+
+		assertThat(cache.obtener(42L)).isNull();
+	}
+
+	@Test
+	void almacenEmbebidoRespetaMaximoYExpiracion() {
+		AlmacenCompartidoEnMemoria acotado = new AlmacenCompartidoEnMemoria(10);
+		for (int i = 0; i < 50; i++) {
+			acotado.guardar("k" + i, new byte[] { 1 }, Duration.ofMinutes(1));
+		}
+		assertThat(acotado.getTamano()).isLessThanOrEqualTo(10);
+
+		acotado.guardar("expirada", new byte[] { 1 }, Duration.ofMillis(-1));
+		acotado.eliminarExpiradas();
+		assertThat(acotado.obtener("expirada")).isNull();
+		assertThat(acotado.getTamano()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	void lecturaEntregaUnaCopiaIndependiente() {
+		replicaA.guardar(42L, ResumenCodecTests.resumenCompleto());
+
+		replicaA.obtener(42L).setMensaje("modificado por el llamador");
+
+		assertThat(replicaA.obtener(42L).getMensaje()).isNotEqualTo("modificado por el llamador");
+	}
+
+	@Test
+	void nivelCercanoAcotadoPorBytes() {
+		long tamano = ResumenCodec.serializar(ResumenCodecTests.resumenCompleto()).length;
+		ResumenCache cache = crearCache(null, DataSize.ofBytes(tamano * 10));
+
+		for (long id = 0; id < 50; id++) {
+			cache.guardar(id, ResumenCodecTests.resumenCompleto());
+		}
+
+		assertThat(cache.getBytesTotales()).isLessThanOrEqualTo(tamano * 10);
+		assertThat(cache.getTamano()).isLessThanOrEqualTo(10);
+		assertThat(cache.obtener(49L)).isNotNull();
+	}
+
+	@Test
+	void bytesSeDescuentanAlSobrescribirEInvalidar() {
+		long tamano = ResumenCodec.serializar(ResumenCodecTests.resumenCompleto()).length;
+
+		replicaA.guardar(1L, ResumenCodecTests.resumenCompleto());
+		replicaA.guardar(1L, ResumenCodecTests.resumenCompleto());
+		replicaA.guardar(2L, ResumenCodecTests.resumenCompleto());
+		assertThat(replicaA.getBytesTotales()).isEqualTo(tamano * 2);
+
+		replicaA.invalidarLocal(1L);
+		assertThat(replicaA.getBytesTotales()).isEqualTo(tamano);
+
+		replicaA.invalidarTodo();
+		assertThat(replicaA.getBytesTotales()).isZero();
+	}
+
+	@Test
+	void resumenMayorQueElLimiteQuedaSoloEnElCompartido() {
+		ResumenCache cache = crearCache(almacen, DataSize.ofBytes(8));
+
+		cache.guardar(42L, ResumenCodecTests.resumenCompleto());
+
+		assertThat(cache.getTamano()).isZero();
+		assertThat(cache.obtener(42L)).isNotNull();
+	}
+
+	private static ResumenCache crearCache(AlmacenCompartido almacen) {
+		return crearCache(almacen, DataSize.ofMegabytes(1));
+	}
+
+	private static ResumenCache crearCache(AlmacenCompartido almacen, DataSize maxBytes) {
+		DefaultListableBeanFactory fabrica = new DefaultListableBeanFactory();
+		if (almacen != null) {
+			fabrica.registerSingleton("almacenCompartido", almacen);
+		}
+		return new ResumenCache(60000, 100, maxBytes, 300000,
+				fabrica.getBeanProvider(AlmacenCompartido.class),
+				fabrica.getBeanProvider(InvalidacionCacheProducer.class));
+	}
+}
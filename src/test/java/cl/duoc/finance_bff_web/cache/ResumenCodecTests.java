@@ -0,0 +1,106 @@
+package cl.duoc.finance_bff_web.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cl.duoc.finance_bff_web.model.CuentaDTO;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+class ResumenCodecTests {
+
+	@Test
+	void idaYVueltaConservaTodosLosCampos() {
+		ResumenWebDTO original = resumenCompleto();
+
+		ResumenWebDTO copia = ResumenCodec.deserializar(ResumenCodec.serializar(original));
+
+		assertThat(copia).usingRecursiveComparison().isEqualTo(original);
+	}
+
+	@Test
+	void idaYVueltaConCamposNulos() {
+		ResumenWebDTO vacio = new ResumenWebDTO();
+
+		ResumenWebDTO copia = ResumenCodec.deserializar(ResumenCodec.serializar(vacio));
+
+		assertThat(copia.getMensaje()).isNull();
+		assertThat(copia.getFechaConsulta()).isNull();
+		assertThat(copia.getCuenta()).isNull();
+		assertThat(copia.getMovimientos()).isNull();
+	}
+
+	@Test
+	void idaYVueltaConCamposInternosNulos() {
+		ResumenWebDTO original = new ResumenWebDTO();
+		original.setCuenta(new CuentaDTO());
+		List<EstadoFinancieroDTO> movimientos = new ArrayList<>();
+		movimientos.add(new EstadoFinancieroDTO());
+		original.setMovimientos(movimientos);
+
+		ResumenWebDTO copia = ResumenCodec.deserializar(ResumenCodec.serializar(original));
+
+		assertThat(copia).usingRecursiveComparison().isEqualTo(original);
+	}
+
+	@Test
+	void idaYVueltaConservaDesactualizado() {
+		ResumenWebDTO original = resumenCompleto();
+		original.setDesactualizado(true);
+
+		assertThat(ResumenCodec.deserializar(ResumenCodec.serializar(original)).isDesactualizado()).isTrue();
+	}
+
+	@Test
+	void listaVaciaNoSeConfundeConNula() {
+		ResumenWebDTO original = new ResumenWebDTO();
+		original.setMovimientos(List.of());
+
+		assertThat(ResumenCodec.deserializar(ResumenCodec.serializar(original)).getMovimientos()).isEmpty();
+	}
+
+	@Test
+	void versionDesconocidaRetornaNull() {
+		byte[] datos = ResumenCodec.serializar(resumenCompleto());
+		datos[0] = (byte) (ResumenCodec.VERSION + 1);
+
+		assertThat(ResumenCodec.deserializar(datos)).isNull();
+	}
+
+	@Test
+	void claveIncluyeLaVersion() {
+		assertThat(ResumenCodec.clave(42L)).isEqualTo("resumen:v" + ResumenCodec.VERSION + ":42");
+	}
+
+	static ResumenWebDTO resumenCompleto() {
+		CuentaDTO cuenta = new CuentaDTO();
+		cuenta.setId(42L);
+		cuenta.setCuentaId(1042L);
+		cuenta.setNombre("Ñandú Pérez");
+		cuenta.setSaldo(150000.5);
+		cuenta.setEdad(30);
+		cuenta.setTipo("ahorro");
+		cuenta.setInteresAplicado(2500.0);
+
+		EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+		mov.setId(1L);
+		mov.setCuentaId(42L);
+		mov.setFecha(LocalDate.of(2026, 2, 1));
+		mov.setTransaccion("deposito");
+		mov.setMonto(-50000.25);
+		mov.setDescripcion("Deposito mensual");
+
+		ResumenWebDTO resumen = new ResumenWebDTO();
+		resumen.setMensaje("Consulta Exitosa - Cliente Web (Datos Completos)");
+		resumen.setFechaConsulta(LocalDateTime.of(2026, 2, 9, 17, 0, 0, 123456789));
+		resumen.setCuenta(cuenta);
+		resumen.setMovimientos(List.of(mov));
+		return resumen;
+	}
+}
@@ -0,0 +1,22 @@
+package cl.duoc.finance_bff_web.config;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+class SecurityConfigTests {
+
+	@Test
+	void almacenDeUsuariosDesconocidoDetieneElArranque() {
+		StaticListableBeanFactory sinAlmacen = new StaticListableBeanFactory();
+
+		assertThatThrownBy(() -> new SecurityConfig().autoridadesCache(
+				sinAlmacen.getBeanProvider(UserDetailsService.class), "ldap", Duration.ofMinutes(5)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("bff.security.user-store=ldap");
+	}
+}
@@ -0,0 +1,69 @@
+package cl.duoc.finance_bff_web.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslStoreBundle;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+
+/**
+ * Los ajustes de TLS sobreviven a la recarga del keystore, en la que Spring
+ * Boot reemplaza el SSLHostConfig del conector por uno nuevo.
+ */
+class TlsConfigTests {
+
+	private static final SslBundle BUNDLE = SslBundle.of(SslStoreBundle.NONE);
+
+	@Test
+	void aplicaLosAjustesAlConectorSeguro() {
+		Connector connector = conectorSeguro();
+
+		personalizar(new DefaultSslBundleRegistry("finance-web", BUNDLE), connector);
+
+		assertAjustes(connector.findSslHostConfigs()[0]);
+	}
+
+	@Test
+	void reaplicaLosAjustesTrasRecargarElBundle() {
+		DefaultSslBundleRegistry bundles = new DefaultSslBundleRegistry("finance-web", BUNDLE);
+		Connector connector = conectorSeguro();
+		personalizar(bundles, connector);
+
+		// Lo que hace Spring Boot al recargar: un SSLHostConfig nuevo sin los ajustes
+		AbstractHttp11Protocol<?> protocolo = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+		SSLHostConfig nuevo = new SSLHostConfig();
+		nuevo.setHostName(protocolo.getDefaultSSLHostConfigName());
+		protocolo.addSslHostConfig(nuevo, true);
+		bundles.updateBundle("finance-web", BUNDLE);
+
+		assertThat(connector.findSslHostConfigs()).containsExactly(nuevo);
+		assertAjustes(nuevo);
+	}
+
+	private static void personalizar(DefaultSslBundleRegistry bundles, Connector connector) {
+		TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+		new TlsConfig().tlsCustomizer(bundles, "finance-web", 1234, 600, false).customize(factory);
+		factory.getTomcatConnectorCustomizers().forEach(customizer -> customizer.customize(connector));
+	}
+
+	private static Connector conectorSeguro() {
+		Connector connector = new Connector("HTTP/1.1");
+		connector.setSecure(true);
+		AbstractHttp11Protocol<?> protocolo = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+		SSLHostConfig sslHostConfig = new SSLHostConfig();
+		sslHostConfig.setHostName(protocolo.getDefaultSSLHostConfigName());
+		protocolo.addSslHostConfig(sslHostConfig);
+		return connector;
+	}
+
+	private static void assertAjustes(SSLHostConfig sslHostConfig) {
+		assertThat(sslHostConfig.getHonorCipherOrder()).isTrue();
+		assertThat(sslHostConfig.getSessionCacheSize()).isEqualTo(1234);
+		assertThat(sslHostConfig.getSessionTimeout()).isEqualTo(600);
+	}
+}
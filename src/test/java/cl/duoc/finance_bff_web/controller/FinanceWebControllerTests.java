@@ -0,0 +1,209 @@
+package cl.duoc.finance_bff_web.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import cl.duoc.finance_bff_web.kafka.AuditoriaProducer;
+import cl.duoc.finance_bff_web.model.CuentaDTO;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+import cl.duoc.finance_bff_web.security.JwtUtil;
+import cl.duoc.finance_bff_web.service.FinanceWebService;
+
+/**
+ * Endpoints asincronos con token Bearer: Spring Security autoriza tambien el
+ * dispatch ASYNC, por lo que JwtFilter debe autenticarlo de nuevo.
+ */
+@SpringBootTest(properties = { "eureka.client.enabled=false", "bff.degradado.probe-enabled=false",
+		"bff.warmup.enabled=false", "bff.rate-limit.enabled=false", "spring.kafka.listener.auto-startup=false" })
+@AutoConfigureMockMvc
+class FinanceWebControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@MockBean
+	private FinanceWebService financeWebService;
+
+	@MockBean
+	private AuditoriaProducer auditoriaProducer;
+
+	private String bearer;
+
+	@BeforeEach
+	void prepararToken() {
+		bearer = "Bearer " + jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB");
+	}
+
+	@Test
+	void resumenConBearerPasaElDispatchAsincrono() throws Exception {
+		when(financeWebService.obtenerResumenCuenta(987L)).thenReturn(resumen(987L));
+
+		MvcResult inicio = mockMvc.perform(get("/bff/web/v1/cuentas/987").header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(inicio))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.cuenta.id").value(987));
+	}
+
+	@Test
+	void exportacionConBearerPasaElDispatchAsincrono() throws Exception {
+		exportarUnMovimiento();
+
+		MvcResult fin = exportar(null, null);
+
+		assertThat(fin.getResponse().getContentAsString()).contains("id,cuentaId,fecha").contains("deposito");
+	}
+
+	@Test
+	void exportacionSeComprimeSiElClienteAceptaGzip() throws Exception {
+		exportarUnMovimiento();
+
+		MvcResult fin = exportar(null, "deflate, gzip;q=0.5");
+
+		assertThat(fin.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		try (GZIPInputStream gzip = new GZIPInputStream(
+				new ByteArrayInputStream(fin.getResponse().getContentAsByteArray()))) {
+			assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8))
+					.contains("id,cuentaId,fecha").contains("deposito");
+		}
+	}
+
+	@Test
+	void exportacionNoSeComprimeConGzipQCero() throws Exception {
+		exportarUnMovimiento();
+
+		MvcResult fin = exportar(null, "gzip;q=0, *");
+
+		assertThat(fin.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(fin.getResponse().getContentAsString()).contains("deposito");
+	}
+
+	@Test
+	void reanudarExportacionPasaElUltimoIdYOmiteElEncabezado() throws Exception {
+		exportarUnMovimiento();
+
+		MvcResult fin = exportar(4L, null);
+
+		verify(financeWebService).recorrerMovimientos(eq(5L), any(), any(), eq(4L), any());
+		assertThat(fin.getResponse().getHeader("X-Export-Despues-De")).isEqualTo("4");
+		assertThat(fin.getResponse().getContentAsString()).doesNotContain("id,cuentaId").contains("deposito");
+	}
+
+	@Test
+	void aceptaGzipRespetaLosValoresQ() {
+		assertThat(FinanceWebController.aceptaGzip(null)).isFalse();
+		assertThat(FinanceWebController.aceptaGzip("gzip")).isTrue();
+		assertThat(FinanceWebController.aceptaGzip("br, GZIP ; q=0.8")).isTrue();
+		assertThat(FinanceWebController.aceptaGzip("gzip;q=0")).isFalse();
+		assertThat(FinanceWebController.aceptaGzip("gzip;q=0.0, *;q=1")).isFalse();
+		assertThat(FinanceWebController.aceptaGzip("*")).isTrue();
+		assertThat(FinanceWebController.aceptaGzip("*;q=0")).isFalse();
+		assertThat(FinanceWebController.aceptaGzip("identity")).isFalse();
+		assertThat(FinanceWebController.aceptaGzip("gzip;q=abc")).isFalse();
+	}
+
+	@Test
+	void sinTokenNoLlegaAlControlador() throws Exception {
+		mockMvc.perform(get("/bff/web/v1/cuentas/987"))
+				.andExpect(status().is3xxRedirection());
+	}
+
+	@Test
+	void falloDeAuditoriaNoCambiaLaRespuesta() throws Exception {
+		when(financeWebService.obtenerResumenCuenta(42L)).thenReturn(resumen(42L));
+		doThrow(new KafkaException("Send failed")).when(auditoriaProducer).registrarConsulta(anyString(), anyString());
+
+		MvcResult inicio = mockMvc.perform(get("/bff/web/v1/cuentas/42").header(HttpHeaders.AUTHORIZATION, bearer))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(inicio))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.cuenta.id").value(42));
+	}
+
+	private void exportarUnMovimiento() {
+		when(financeWebService.recorrerMovimientos(eq(5L), any(), any(), any(), any())).thenAnswer(invocacion -> {
+			Consumer<EstadoFinancieroDTO> consumidor = invocacion.getArgument(4);
+			consumidor.accept(movimiento(5L));
+			return 1L;
+		});
+	}
+
+	private MvcResult exportar(Long despuesDe, String acceptEncoding) throws Exception {
+		MockHttpServletRequestBuilder peticion = get("/bff/web/v1/cuentas/5/movimientos/export")
+				.header(HttpHeaders.AUTHORIZATION, bearer);
+		if (despuesDe != null) {
+			peticion.param("despuesDe", String.valueOf(despuesDe));
+		}
+		if (acceptEncoding != null) {
+			peticion.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		MvcResult inicio = mockMvc.perform(peticion)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		return mockMvc.perform(asyncDispatch(inicio))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private static ResumenWebDTO resumen(long id) {
+		CuentaDTO cuenta = new CuentaDTO();
+		cuenta.setId(id);
+		cuenta.setNombre("Titular " + id);
+		ResumenWebDTO resumen = new ResumenWebDTO();
+		resumen.setMensaje("Consulta Exitosa - Cliente Web (Datos Completos)");
+		resumen.setFechaConsulta(LocalDateTime.of(2026, 2, 9, 17, 0));
+		resumen.setCuenta(cuenta);
+		resumen.setMovimientos(List.of(movimiento(id)));
+		return resumen;
+	}
+
+	private static EstadoFinancieroDTO movimiento(long cuentaId) {
+		EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+		mov.setId(1L);
+		mov.setCuentaId(cuentaId);
+		mov.setFecha(LocalDate.of(2026, 2, 1));
+		mov.setTransaccion("deposito");
+		mov.setMonto(50000.0);
+		mov.setDescripcion("Deposito mensual");
+		return mov;
+	}
+}
@@ -0,0 +1,79 @@
+package cl.duoc.finance_bff_web.finance_bff_web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * El probe de readiness es publico y reporta 503 mientras corren los
+ * ApplicationRunner (entre ellos el warm-up de WarmupService).
+ */
+@SpringBootTest(properties = { "eureka.client.enabled=false", "bff.degradado.probe-enabled=false" })
+@AutoConfigureMockMvc
+@Import(ReadinessProbeTests.ProbeDuranteRunners.class)
+class ReadinessProbeTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private ProbeDuranteRunners probeDuranteRunners;
+
+	@Test
+	void readinessResponde503MientrasCorreElWarmup() {
+		assertThat(probeDuranteRunners.estado).isEqualTo(503);
+	}
+
+	@Test
+	void readinessEsPublicoYSigueElEstadoDeDisponibilidad() throws Exception {
+		mockMvc.perform(get("/actuator/health/readiness")).andExpect(status().isOk());
+
+		AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+		try {
+			mockMvc.perform(get("/actuator/health/readiness")).andExpect(status().isServiceUnavailable());
+		} finally {
+			AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+		}
+	}
+
+	@Test
+	void metricasRequierenAutenticacion() throws Exception {
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().is3xxRedirection());
+	}
+
+	/**
+	 * Consulta el probe durante la fase de runners, igual que lo haria Kubernetes.
+	 */
+	static class ProbeDuranteRunners implements ApplicationRunner {
+
+		private final ObjectProvider<MockMvc> mockMvc;
+
+		volatile int estado;
+
+		ProbeDuranteRunners(ObjectProvider<MockMvc> mockMvc) {
+			this.mockMvc = mockMvc;
+		}
+
+		@Override
+		public void run(ApplicationArguments args) throws Exception {
+			estado = mockMvc.getObject().perform(get("/actuator/health/readiness"))
+					.andReturn().getResponse().getStatus();
+		}
+	}
+}
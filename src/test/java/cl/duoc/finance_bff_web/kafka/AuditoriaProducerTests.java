@@ -0,0 +1,71 @@
+package cl.duoc.finance_bff_web.kafka;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * La auditoria es fire-and-forget: un fallo de Kafka nunca llega al llamador.
+ */
+class AuditoriaProducerTests {
+
+	private KafkaTemplate<String, String> kafkaTemplate;
+	private ThreadPoolTaskExecutor executor;
+	private AuditoriaProducer producer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void crearProducer() {
+		kafkaTemplate = mock(KafkaTemplate.class);
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(10);
+		executor.initialize();
+		producer = new AuditoriaProducer(kafkaTemplate, executor);
+	}
+
+	@AfterEach
+	void detenerExecutor() {
+		executor.shutdown();
+	}
+
+	@Test
+	void errorAlEnviarNoLlegaAlLlamador() {
+		when(kafkaTemplate.send(eq("auditoria-topic"), anyString()))
+				.thenThrow(new TimeoutException("Topic auditoria-topic not present in metadata"));
+
+		assertThatCode(() -> producer.registrarConsulta("1", "BFF-WEB")).doesNotThrowAnyException();
+		verify(kafkaTemplate, timeout(1000)).send(eq("auditoria-topic"), anyString());
+	}
+
+	@Test
+	void envioFallidoNoLlegaAlLlamador() {
+		when(kafkaTemplate.send(eq("auditoria-topic"), anyString()))
+				.thenReturn(CompletableFuture.<SendResult<String, String>>failedFuture(new TimeoutException("Send failed")));
+
+		assertThatCode(() -> producer.registrarConsulta("1", "BFF-WEB")).doesNotThrowAnyException();
+		verify(kafkaTemplate, timeout(1000)).send(eq("auditoria-topic"), anyString());
+	}
+
+	@Test
+	void executorSinCapacidadDescartaSinLanzar() {
+		executor.shutdown();
+
+		assertThatCode(() -> producer.registrarConsulta("1", "BFF-WEB")).doesNotThrowAnyException();
+	}
+}
@@ -0,0 +1,64 @@
+package cl.duoc.finance_bff_web.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+import cl.duoc.finance_bff_web.cache.AlmacenCompartido;
+import cl.duoc.finance_bff_web.cache.AlmacenCompartidoEnMemoria;
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+
+/**
+ * El grupo comun de refresco solo se usa con un almacen visto por todas las
+ * replicas; si no, cada replica usa un grupo propio y estable.
+ */
+class BatchCompletadoListenerTests {
+
+	@Test
+	void almacenEntreProcesosUsaElGrupoComun() {
+		assertThat(grupo(new AlmacenExterno(), "pod-a")).isEqualTo("finance-bff-web-warmup");
+		assertThat(grupo(new AlmacenExterno(), "pod-b")).isEqualTo("finance-bff-web-warmup");
+	}
+
+	@Test
+	void almacenEmbebidoUsaUnGrupoPorReplica() {
+		assertThat(grupo(new AlmacenCompartidoEnMemoria(10), "pod-a")).isEqualTo("finance-bff-web-warmup-pod-a");
+	}
+
+	@Test
+	void sinAlmacenElGrupoEsEstableEntreReinicios() {
+		assertThat(grupo(null, "pod-a")).isEqualTo(grupo(null, "pod-a")).isEqualTo("finance-bff-web-warmup-pod-a");
+	}
+
+	private static String grupo(AlmacenCompartido almacen, String instancia) {
+		DefaultListableBeanFactory fabrica = new DefaultListableBeanFactory();
+		if (almacen != null) {
+			fabrica.registerSingleton("almacenCompartido", almacen);
+		}
+		ResumenCache cache = new ResumenCache(60000, 100, DataSize.ofMegabytes(1), 300000,
+				fabrica.getBeanProvider(AlmacenCompartido.class),
+				fabrica.getBeanProvider(InvalidacionCacheProducer.class));
+		return new BatchCompletadoListener(null, cache, "finance-bff-web", instancia).getGrupo();
+	}
+
+	/** Almacen externo (ej: Redis) simulado: el comportamiento por defecto de la interfaz */
+	private static final class AlmacenExterno implements AlmacenCompartido {
+
+		@Override
+		public byte[] obtener(String clave) {
+			return null;
+		}
+
+		@Override
+		public void guardar(String clave, byte[] valor, Duration ttl) {
+		}
+
+		@Override
+		public void eliminar(String clave) {
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Limitador AIMD: crecimiento aditivo, una sola reduccion multiplicativa
+ * por ventana (latencia objetivo) y permisos que se liberan una sola vez.
+ */
+class LimitadorAdaptativoTests {
+
+	private static final long RAPIDA = 0;
+	private static final long LENTA = TimeUnit.SECONDS.toNanos(60);
+
+	@Test
+	void rechazaAlAlcanzarElLimite() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 10, 2, 1000, 0.5);
+
+		assertThat(limitador.intentarAdquirir()).isNotNull();
+		assertThat(limitador.intentarAdquirir()).isNotNull();
+		assertThat(limitador.intentarAdquirir()).isNull();
+		assertThat(limitador.getEnCurso()).isEqualTo(2);
+	}
+
+	@Test
+	void creceDeAUnoConRespuestasRapidasSiElLimiteSeUsa() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 10, 2, 1000, 0.5);
+		LimitadorAdaptativo.Permiso primero = limitador.intentarAdquirir();
+		LimitadorAdaptativo.Permiso segundo = limitador.intentarAdquirir();
+
+		primero.liberar(RAPIDA, true);
+		assertThat(limitador.getLimite()).isEqualTo(3);
+
+		// Con una sola llamada en curso el limite de 3 ya no se esta usando
+		segundo.liberar(RAPIDA, true);
+		assertThat(limitador.getLimite()).isEqualTo(3);
+	}
+
+	@Test
+	void noCreceSiElLimiteNoSeUsa() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 10, 8, 1000, 0.5);
+
+		limitador.intentarAdquirir().liberar(RAPIDA, true);
+
+		assertThat(limitador.getLimite()).isEqualTo(8);
+	}
+
+	@Test
+	void noSuperaElMaximo() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 3, 3, 1000, 0.5);
+		List<LimitadorAdaptativo.Permiso> permisos = adquirir(limitador, 3);
+
+		permisos.forEach(permiso -> permiso.liberar(RAPIDA, true));
+
+		assertThat(limitador.getLimite()).isEqualTo(3);
+	}
+
+	@Test
+	void reduceUnaSolaVezPorVentana() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 40, 10_000, 0.5);
+		List<LimitadorAdaptativo.Permiso> permisos = adquirir(limitador, 3);
+
+		permisos.forEach(permiso -> permiso.liberar(LENTA, true));
+
+		assertThat(limitador.getLimite()).isEqualTo(20);
+	}
+
+	@Test
+	void vuelveAReducirTrasLaVentana() throws InterruptedException {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 40, 20, 0.5);
+		List<LimitadorAdaptativo.Permiso> permisos = adquirir(limitador, 2);
+
+		permisos.get(0).liberar(LENTA, true);
+		TimeUnit.MILLISECONDS.sleep(40);
+		permisos.get(1).liberar(LENTA, true);
+
+		assertThat(limitador.getLimite()).isEqualTo(10);
+	}
+
+	@Test
+	void unaFallaReduceAunqueSeaRapida() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 40, 10_000, 0.5);
+
+		limitador.intentarAdquirir().liberar(RAPIDA, false);
+
+		assertThat(limitador.getLimite()).isEqualTo(20);
+	}
+
+	@Test
+	void noBajaDelMinimo() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(4, 100, 5, 10_000, 0.1);
+
+		limitador.intentarAdquirir().liberar(LENTA, true);
+
+		assertThat(limitador.getLimite()).isEqualTo(4);
+	}
+
+	@Test
+	void respuestasLentasConcurrentesReducenUnaSolaVez() throws InterruptedException {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 64, 64, 10_000, 0.5);
+		List<LimitadorAdaptativo.Permiso> permisos = adquirir(limitador, 32);
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService hilos = Executors.newFixedThreadPool(8);
+
+		for (LimitadorAdaptativo.Permiso permiso : permisos) {
+			hilos.execute(() -> {
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				permiso.liberar(LENTA, true);
+			});
+		}
+		largada.countDown();
+		hilos.shutdown();
+
+		assertThat(hilos.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(limitador.getLimite()).isEqualTo(32);
+		assertThat(limitador.getEnCurso()).isZero();
+	}
+
+	@Test
+	void liberarSoloTieneEfectoLaPrimeraVez() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 40, 10_000, 0.5);
+		LimitadorAdaptativo.Permiso permiso = limitador.intentarAdquirir();
+		limitador.intentarAdquirir();
+
+		permiso.liberar(LENTA, true);
+		permiso.liberar(LENTA, true);
+		permiso.cancelar();
+
+		assertThat(limitador.getEnCurso()).isEqualTo(1);
+		assertThat(limitador.getLimite()).isEqualTo(20);
+	}
+
+	@Test
+	void cancelarLiberaElCupoSinAjustarElLimite() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 40, 10_000, 0.5);
+		LimitadorAdaptativo.Permiso permiso = limitador.intentarAdquirir();
+
+		permiso.cancelar();
+		permiso.liberar(LENTA, false);
+
+		assertThat(limitador.getEnCurso()).isZero();
+		assertThat(limitador.getLimite()).isEqualTo(40);
+	}
+
+	@Test
+	void laLatenciaSeMideDesdeIniciar() throws InterruptedException {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(1, 100, 1, 50, 0.5);
+		LimitadorAdaptativo.Permiso permiso = limitador.intentarAdquirir();
+
+		// Espera en la cola del pool mas larga que la latencia objetivo
+		TimeUnit.MILLISECONDS.sleep(80);
+		permiso.iniciar();
+		permiso.liberar(true);
+
+		assertThat(limitador.getLimite()).isEqualTo(2);
+	}
+
+	@Test
+	void reiniciarAlMinimo() {
+		LimitadorAdaptativo limitador = new LimitadorAdaptativo(4, 100, 40, 10_000, 0.5);
+
+		limitador.reiniciarAlMinimo();
+
+		assertThat(limitador.getLimite()).isEqualTo(4);
+	}
+
+	private static List<LimitadorAdaptativo.Permiso> adquirir(LimitadorAdaptativo limitador, int cantidad) {
+		List<LimitadorAdaptativo.Permiso> permisos = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			permisos.add(limitador.intentarAdquirir());
+		}
+		assertThat(permisos).doesNotContainNull();
+		return permisos;
+	}
+}
@@ -0,0 +1,139 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Limitacion por cliente (usuario autenticado o IP) y recorte de buckets
+ * en la tarea programada, fuera del hilo de la peticion.
+ */
+class RateLimitFilterTests {
+
+	private static final String CUENTAS = "/bff/web/v1/cuentas/1";
+
+	@AfterEach
+	void limpiarContexto() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void rechazaAlAgotarLaCapacidadConHeaders() throws Exception {
+		RateLimitFilter filtro = filtro(3, 100);
+
+		for (int restantes = 2; restantes >= 0; restantes--) {
+			MockHttpServletResponse respuesta = ejecutar(filtro, "10.0.0.1", CUENTAS);
+			assertThat(respuesta.getStatus()).isEqualTo(200);
+			assertThat(respuesta.getHeader("X-RateLimit-Limit")).isEqualTo("3");
+			assertThat(respuesta.getHeader("X-RateLimit-Remaining")).isEqualTo(String.valueOf(restantes));
+		}
+
+		MockHttpServletResponse rechazada = ejecutar(filtro, "10.0.0.1", CUENTAS);
+		assertThat(rechazada.getStatus()).isEqualTo(429);
+		assertThat(rechazada.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+		assertThat(Long.parseLong(rechazada.getHeader(HttpHeaders.RETRY_AFTER))).isPositive();
+		assertThat(rechazada.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+	}
+
+	@Test
+	void cadaIpTieneSuPropioBucket() throws Exception {
+		RateLimitFilter filtro = filtro(1, 100);
+
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(200);
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(429);
+		assertThat(ejecutar(filtro, "10.0.0.2", CUENTAS).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void usuarioAutenticadoSeIdentificaPorNombreYNoPorIp() throws Exception {
+		RateLimitFilter filtro = filtro(1, 100);
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				"usuario_web", null, List.of(new SimpleGrantedAuthority("ROLE_CLIENTE_WEB"))));
+
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(200);
+		assertThat(ejecutar(filtro, "10.0.0.2", CUENTAS).getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	void rutaSinReglaNoSeLimita() throws Exception {
+		RateLimitFilter filtro = filtro(1, 100);
+
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletResponse respuesta = ejecutar(filtro, "10.0.0.1", "/actuator/health");
+			assertThat(respuesta.getStatus()).isEqualTo(200);
+			assertThat(respuesta.getHeader("X-RateLimit-Limit")).isNull();
+		}
+		assertThat(filtro.getClientes()).isZero();
+	}
+
+	@Test
+	void deshabilitadoNoLimita() throws Exception {
+		RateLimitProperties properties = propiedades(1, 100);
+		properties.setEnabled(false);
+		RateLimitFilter filtro = new RateLimitFilter(properties);
+
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(200);
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void barridoRecortaHastaElMaximo() throws Exception {
+		RateLimitFilter filtro = filtro(5, 10);
+
+		for (int i = 0; i < 30; i++) {
+			ejecutar(filtro, "10.0.1." + i, CUENTAS);
+		}
+		filtro.eliminarInactivos();
+
+		assertThat(filtro.getClientes()).isLessThan(10);
+	}
+
+	@Test
+	void barridoConservaElBucketDeUnClienteActivo() throws Exception {
+		RateLimitFilter filtro = filtro(2, 10);
+		ejecutar(filtro, "10.0.0.1", CUENTAS);
+		ejecutar(filtro, "10.0.0.1", CUENTAS);
+
+		for (int i = 0; i < 30; i++) {
+			ejecutar(filtro, "10.0.1." + i, CUENTAS);
+		}
+		filtro.eliminarInactivos();
+
+		// El cliente que agoto su bucket no recibe uno nuevo por el recorte
+		assertThat(ejecutar(filtro, "10.0.0.1", CUENTAS).getStatus()).isEqualTo(429);
+	}
+
+	private static RateLimitFilter filtro(int capacidad, int maxClientes) {
+		return new RateLimitFilter(propiedades(capacidad, maxClientes));
+	}
+
+	private static RateLimitProperties propiedades(int capacidad, int maxClientes) {
+		RateLimitProperties.Regla regla = new RateLimitProperties.Regla();
+		regla.setPath("/bff/web/v1/cuentas/**");
+		regla.setCapacity(capacidad);
+		// Recarga lenta: ningun token se recupera durante la prueba
+		regla.setRefillPerSecond(0.001);
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setMaxClients(maxClientes);
+		properties.getRules().put("cuentas", regla);
+		return properties;
+	}
+
+	private static MockHttpServletResponse ejecutar(RateLimitFilter filtro, String ip, String ruta) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+		request.setRemoteAddr(ip);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filtro.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,171 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import cl.duoc.finance_bff_web.security.JwtUtil;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+/**
+ * Sonda del Core contra un Core local (HttpServer) cuyo estado y latencia
+ * se controlan desde cada prueba. Se llama a sondear() directamente, salvo
+ * en la prueba del scheduler propio.
+ */
+class SondaCoreTests {
+
+	private HttpServer core;
+	private volatile int estadoCore = 200;
+	private volatile long demoraCoreMs;
+	private final AtomicInteger consultas = new AtomicInteger();
+
+	private CircuitBreakerRegistry registry;
+	private LimitadorAdaptativo limitador;
+	private SondaCore sonda;
+
+	@BeforeEach
+	void iniciarCore() throws IOException {
+		core = HttpServer.create(new InetSocketAddress(0), 0);
+		core.createContext("/api/v1/cuentas/", exchange -> {
+			consultas.incrementAndGet();
+			try {
+				Thread.sleep(demoraCoreMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(estadoCore, -1);
+			exchange.close();
+		});
+		core.start();
+
+		registry = CircuitBreakerRegistry.ofDefaults();
+		limitador = new LimitadorAdaptativo(2, 20, 10, 1000, 0.5);
+	}
+
+	@AfterEach
+	void detener() {
+		if (sonda != null) {
+			sonda.detener();
+		}
+		core.stop(0);
+	}
+
+	@Test
+	void tresExitosPasanAHalfOpenYReinicianElLimitador() {
+		sonda = crearSonda(2000, 5000);
+		abrirBreaker();
+
+		sonda.sondear();
+		sonda.sondear();
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(limitador.getLimite()).isEqualTo(10);
+
+		sonda.sondear();
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(limitador.getLimite()).isEqualTo(2);
+	}
+
+	@Test
+	void unaFallaReiniciaLaRacha() {
+		sonda = crearSonda(2000, 5000);
+		abrirBreaker();
+
+		sonda.sondear();
+		sonda.sondear();
+		estadoCore = 503;
+		sonda.sondear();
+		estadoCore = 200;
+		sonda.sondear();
+		sonda.sondear();
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(limitador.getLimite()).isEqualTo(10);
+
+		sonda.sondear();
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+	}
+
+	@Test
+	void respuesta4xxCuentaComoSana() {
+		sonda = crearSonda(2000, 5000);
+		abrirBreaker();
+		estadoCore = 404;
+
+		for (int i = 0; i < 3; i++) {
+			sonda.sondear();
+		}
+
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+	}
+
+	@Test
+	void respuestaLentaCuentaComoFalla() {
+		sonda = crearSonda(50, 5000);
+		abrirBreaker();
+		demoraCoreMs = 200;
+
+		for (int i = 0; i < 3; i++) {
+			sonda.sondear();
+		}
+
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(limitador.getLimite()).isEqualTo(10);
+	}
+
+	@Test
+	void breakerCerradoNoConsultaAlCore() {
+		sonda = crearSonda(2000, 5000);
+
+		for (int i = 0; i < 3; i++) {
+			sonda.sondear();
+		}
+
+		assertThat(consultas.get()).isZero();
+		assertThat(estado()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void programadaEnUnHiloPropio() throws InterruptedException {
+		CountDownLatch reiniciado = new CountDownLatch(1);
+		String[] hilo = new String[1];
+		limitador = new LimitadorAdaptativo(2, 20, 10, 1000, 0.5) {
+			@Override
+			public void reiniciarAlMinimo() {
+				hilo[0] = Thread.currentThread().getName();
+				super.reiniciarAlMinimo();
+				reiniciado.countDown();
+			}
+		};
+		sonda = crearSonda(2000, 10);
+		abrirBreaker();
+
+		sonda.iniciar();
+
+		assertThat(reiniciado.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(hilo[0]).startsWith("finance-sonda-");
+	}
+
+	private SondaCore crearSonda(long latenciaMaximaMs, long intervaloMs) {
+		return new SondaCore(registry, limitador, new JwtUtil(), true,
+				"http://localhost:" + core.getAddress().getPort() + "/api/v1/cuentas/1",
+				3, latenciaMaximaMs, 3000, intervaloMs);
+	}
+
+	private void abrirBreaker() {
+		registry.circuitBreaker("financeCore").transitionToOpenState();
+	}
+
+	private CircuitBreaker.State estado() {
+		return registry.circuitBreaker("financeCore").getState();
+	}
+}
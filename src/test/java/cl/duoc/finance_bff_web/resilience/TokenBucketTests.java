@@ -0,0 +1,99 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+	// 5 tokens de capacidad, 1 token cada 200 ms (5 por segundo)
+	private static final long INTERVALO = SEGUNDO / 5;
+	private static final int CAPACIDAD = 5;
+
+	private static final long T0 = 1_000 * SEGUNDO;
+
+	@Test
+	void permiteRafagaHastaLaCapacidad() {
+		TokenBucket bucket = new TokenBucket(INTERVALO, CAPACIDAD, T0);
+
+		for (int restantes = CAPACIDAD - 1; restantes >= 0; restantes--) {
+			assertThat(bucket.consumir(T0)).isEqualTo(restantes);
+		}
+		assertThat(bucket.consumir(T0)).isNegative();
+	}
+
+	@Test
+	void rechazoIndicaEsperaHastaElSiguienteToken() {
+		TokenBucket bucket = agotado();
+
+		assertThat(bucket.consumir(T0)).isEqualTo(-INTERVALO);
+		assertThat(bucket.consumir(T0 + INTERVALO / 2)).isEqualTo(-(INTERVALO / 2));
+	}
+
+	@Test
+	void rechazoNoConsumeTokens() {
+		TokenBucket bucket = agotado();
+
+		for (int i = 0; i < 10; i++) {
+			bucket.consumir(T0);
+		}
+		assertThat(bucket.consumir(T0 + INTERVALO)).isZero();
+	}
+
+	@Test
+	void recuperaUnTokenPorIntervalo() {
+		TokenBucket bucket = agotado();
+
+		assertThat(bucket.consumir(T0 + INTERVALO - 1)).isNegative();
+		assertThat(bucket.consumir(T0 + INTERVALO)).isZero();
+		assertThat(bucket.consumir(T0 + INTERVALO)).isNegative();
+	}
+
+	@Test
+	void seRellenaPorCompletoSinSuperarLaCapacidad() {
+		TokenBucket bucket = agotado();
+
+		assertThat(bucket.nanosHastaLleno(T0)).isEqualTo(CAPACIDAD * INTERVALO);
+		assertThat(bucket.nanosHastaLleno(T0 + CAPACIDAD * INTERVALO)).isZero();
+
+		// Mucho tiempo inactivo no acumula mas que la capacidad
+		long despues = T0 + 100 * SEGUNDO;
+		assertThat(bucket.consumir(despues)).isEqualTo(CAPACIDAD - 1);
+	}
+
+	@Test
+	void inactivoSoloCuandoLlevaLlenoMasQueElUmbral() {
+		TokenBucket bucket = agotado();
+		long lleno = T0 + CAPACIDAD * INTERVALO;
+
+		assertThat(bucket.inactivo(lleno, 0)).isFalse();
+		assertThat(bucket.inactivo(lleno + 1, 0)).isTrue();
+		assertThat(bucket.inactivo(lleno + SEGUNDO, 2 * SEGUNDO)).isFalse();
+	}
+
+	@Test
+	void retryAfterRedondeaHaciaArribaEnSegundos() {
+		// Regla de login: 0.2 tokens por segundo -> un token cada 5 s
+		TokenBucket login = new TokenBucket(5 * SEGUNDO, 1, T0);
+		login.consumir(T0);
+
+		long espera = -login.consumir(T0 + 1);
+		assertThat(RateLimitFilter.segundos(espera)).isEqualTo(5);
+
+		assertThat(RateLimitFilter.segundos(1)).isEqualTo(1);
+		assertThat(RateLimitFilter.segundos(SEGUNDO)).isEqualTo(1);
+		assertThat(RateLimitFilter.segundos(SEGUNDO + 1)).isEqualTo(2);
+	}
+
+	private static TokenBucket agotado() {
+		TokenBucket bucket = new TokenBucket(INTERVALO, CAPACIDAD, T0);
+		for (int i = 0; i < CAPACIDAD; i++) {
+			bucket.consumir(T0);
+		}
+		return bucket;
+	}
+}
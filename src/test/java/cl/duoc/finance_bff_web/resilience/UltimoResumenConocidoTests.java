@@ -0,0 +1,94 @@
+package cl.duoc.finance_bff_web.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import cl.duoc.finance_bff_web.cache.ResumenCodec;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+class UltimoResumenConocidoTests {
+
+	@Test
+	void guardaYDevuelveUnaCopia() {
+		UltimoResumenConocido snapshots = new UltimoResumenConocido(10, DataSize.ofMegabytes(1));
+		snapshots.guardar(1L, resumen(1L, 3));
+
+		ResumenWebDTO copia = snapshots.obtener(1L);
+		copia.setMensaje("modificado");
+
+		assertThat(snapshots.obtener(1L).getMensaje()).isEqualTo("cuenta 1");
+		assertThat(snapshots.obtener(2L)).isNull();
+	}
+
+	@Test
+	void respetaElLimiteDeBytesDescartandoLasMenosUsadas() {
+		int tamano = ResumenCodec.serializar(resumen(1L, 100)).length;
+		UltimoResumenConocido snapshots = new UltimoResumenConocido(1000, DataSize.ofBytes(tamano * 3L));
+
+		snapshots.guardar(1L, resumen(1L, 100));
+		snapshots.guardar(2L, resumen(2L, 100));
+		snapshots.guardar(3L, resumen(3L, 100));
+		snapshots.obtener(1L);
+		snapshots.guardar(4L, resumen(4L, 100));
+
+		assertThat(snapshots.getBytesTotales()).isLessThanOrEqualTo(tamano * 3L);
+		assertThat(snapshots.obtener(2L)).isNull();
+		assertThat(snapshots.obtener(1L)).isNotNull();
+		assertThat(snapshots.obtener(4L)).isNotNull();
+	}
+
+	@Test
+	void respetaElLimiteDeCopias() {
+		UltimoResumenConocido snapshots = new UltimoResumenConocido(2, DataSize.ofMegabytes(1));
+
+		snapshots.guardar(1L, resumen(1L, 1));
+		snapshots.guardar(2L, resumen(2L, 1));
+		snapshots.guardar(3L, resumen(3L, 1));
+
+		assertThat(snapshots.getTamano()).isEqualTo(2);
+		assertThat(snapshots.obtener(1L)).isNull();
+	}
+
+	@Test
+	void reemplazarUnaCopiaActualizaLosBytes() {
+		UltimoResumenConocido snapshots = new UltimoResumenConocido(10, DataSize.ofMegabytes(1));
+
+		snapshots.guardar(1L, resumen(1L, 100));
+		snapshots.guardar(1L, resumen(1L, 1));
+
+		assertThat(snapshots.getBytesTotales()).isEqualTo(ResumenCodec.serializar(resumen(1L, 1)).length);
+	}
+
+	@Test
+	void copiaMayorQueElLimiteNoSeGuarda() {
+		int pequeno = ResumenCodec.serializar(resumen(1L, 1)).length;
+		UltimoResumenConocido snapshots = new UltimoResumenConocido(10, DataSize.ofBytes(pequeno * 2L));
+		snapshots.guardar(1L, resumen(1L, 1));
+
+		snapshots.guardar(2L, resumen(2L, 1000));
+
+		assertThat(snapshots.obtener(2L)).isNull();
+		assertThat(snapshots.obtener(1L)).isNotNull();
+	}
+
+	private static ResumenWebDTO resumen(long id, int movimientos) {
+		List<EstadoFinancieroDTO> lista = new ArrayList<>();
+		for (int i = 0; i < movimientos; i++) {
+			EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+			mov.setId((long) i);
+			mov.setCuentaId(id);
+			mov.setDescripcion("Movimiento " + i);
+			lista.add(mov);
+		}
+		ResumenWebDTO resumen = new ResumenWebDTO();
+		resumen.setMensaje("cuenta " + id);
+		resumen.setMovimientos(lista);
+		return resumen;
+	}
+}
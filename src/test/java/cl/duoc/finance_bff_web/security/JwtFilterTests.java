@@ -0,0 +1,121 @@
+package cl.duoc.finance_bff_web.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+/**
+ * Autenticacion desde el token: en modo stateless los roles salen del claim
+ * "role"; en modo clasico, del almacen de usuarios (con 401 si ya no existe).
+ */
+class JwtFilterTests {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	@AfterEach
+	void limpiarContexto() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void statelessTomaLosRolesDelClaimSinConsultarElAlmacen() throws Exception {
+		UserDetailsService almacen = mock(UserDetailsService.class);
+		JwtFilter filtro = new JwtFilter(jwtUtil, new AutoridadesCache(almacen, Duration.ofMinutes(5)), true);
+		MockFilterChain cadena = new MockFilterChain();
+
+		MockHttpServletResponse respuesta = ejecutar(filtro, jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB"), cadena);
+
+		assertThat(respuesta.getStatus()).isEqualTo(200);
+		assertThat(cadena.getRequest()).isNotNull();
+		assertThat(autenticado().getName()).isEqualTo("usuario_web");
+		assertThat(roles()).containsExactly("ROLE_CLIENTE_WEB");
+		verifyNoInteractions(almacen);
+	}
+
+	@Test
+	void statelessSinClaimRoleQuedaSinRoles() throws Exception {
+		JwtFilter filtro = new JwtFilter(jwtUtil, null, true);
+
+		ejecutar(filtro, jwtUtil.generateToken("usuario_web", null), new MockFilterChain());
+
+		assertThat(autenticado().getName()).isEqualTo("usuario_web");
+		assertThat(roles()).isEmpty();
+	}
+
+	@Test
+	void clasicoTomaLosRolesDelAlmacen() throws Exception {
+		// El almacen manda: el claim del token no se usa en modo clasico
+		JwtFilter filtro = new JwtFilter(jwtUtil, cache("usuario_web", "AUDITOR"), false);
+		MockFilterChain cadena = new MockFilterChain();
+
+		ejecutar(filtro, jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB"), cadena);
+
+		assertThat(cadena.getRequest()).isNotNull();
+		assertThat(roles()).containsExactly("ROLE_AUDITOR");
+	}
+
+	@Test
+	void clasicoConUsuarioInexistenteResponde401() throws Exception {
+		JwtFilter filtro = new JwtFilter(jwtUtil, cache("otro_usuario", "CLIENTE_WEB"), false);
+		MockFilterChain cadena = new MockFilterChain();
+
+		MockHttpServletResponse respuesta = ejecutar(filtro, jwtUtil.generateToken("usuario_web", "ROLE_CLIENTE_WEB"), cadena);
+
+		assertThat(respuesta.getStatus()).isEqualTo(401);
+		assertThat(respuesta.getHeader(HttpHeaders.WWW_AUTHENTICATE)).startsWith("Bearer");
+		assertThat(cadena.getRequest()).isNull();
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	@Test
+	void tokenInvalidoContinuaSinAutenticar() throws Exception {
+		JwtFilter filtro = new JwtFilter(jwtUtil, null, true);
+		MockFilterChain cadena = new MockFilterChain();
+
+		MockHttpServletResponse respuesta = ejecutar(filtro, "no-es-un-jwt", cadena);
+
+		assertThat(respuesta.getStatus()).isEqualTo(200);
+		assertThat(cadena.getRequest()).isNotNull();
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	private static AutoridadesCache cache(String usuario, String rol) {
+		UserDetailsService almacen = new InMemoryUserDetailsManager(
+				User.withUsername(usuario).password("{noop}1234").roles(rol).build());
+		return new AutoridadesCache(almacen, Duration.ofMinutes(5));
+	}
+
+	private static MockHttpServletResponse ejecutar(JwtFilter filtro, String token, MockFilterChain cadena)
+			throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bff/web/v1/cuentas/1");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filtro.doFilter(request, response, cadena);
+		return response;
+	}
+
+	private static Authentication autenticado() {
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(auth).isNotNull();
+		return auth;
+	}
+
+	private static Iterable<String> roles() {
+		return autenticado().getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+	}
+}
@@ -0,0 +1,128 @@
+package cl.duoc.finance_bff_web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+
+class EscritorMovimientosTests {
+
+	@Test
+	void csvEmpiezaConBomYEncabezado() throws IOException {
+		String salida = escribir("csv", true);
+
+		assertThat(salida).isEqualTo("\uFEFFid,cuentaId,fecha,transaccion,monto,descripcion\r\n");
+	}
+
+	@Test
+	void tsvNoLlevaBom() throws IOException {
+		String salida = escribir("tsv", true);
+
+		assertThat(salida).isEqualTo("id\tcuentaId\tfecha\ttransaccion\tmonto\tdescripcion\r\n");
+	}
+
+	@Test
+	void reanudarNoRepiteBomNiEncabezado() throws IOException {
+		String salida = escribir("csv", false, movimiento("deposito", "Deposito mensual"));
+
+		assertThat(salida).isEqualTo("1,42,2026-02-01,deposito,50000.25,Deposito mensual\r\n");
+	}
+
+	@Test
+	void montosSinNotacionCientifica() throws IOException {
+		EstadoFinancieroDTO mov = movimiento("deposito", "x");
+		mov.setMonto(1.0E7);
+
+		assertThat(escribir("csv", false, mov)).isEqualTo("1,42,2026-02-01,deposito,10000000,x\r\n");
+	}
+
+	@Test
+	void camposNulosQuedanVacios() throws IOException {
+		assertThat(escribir("csv", false, new EstadoFinancieroDTO())).isEqualTo(",,,,,\r\n");
+	}
+
+	@Test
+	void citaCamposConSeparadorComillasOSaltos() throws IOException {
+		String salida = escribir("csv", false,
+				movimiento("pago", "Arriendo, enero"),
+				movimiento("pago", "dijo \"hola\""),
+				movimiento("pago", "linea1\nlinea2"));
+
+		assertThat(salida).isEqualTo(
+				"1,42,2026-02-01,pago,50000.25,\"Arriendo, enero\"\r\n"
+						+ "1,42,2026-02-01,pago,50000.25,\"dijo \"\"hola\"\"\"\r\n"
+						+ "1,42,2026-02-01,pago,50000.25,\"linea1\nlinea2\"\r\n");
+	}
+
+	@Test
+	void tsvNoCitaComas() throws IOException {
+		String salida = escribir("tsv", false, movimiento("pago", "Arriendo, enero"));
+
+		assertThat(salida).isEqualTo("1\t42\t2026-02-01\tpago\t50000.25\tArriendo, enero\r\n");
+	}
+
+	@Test
+	void tsvCitaTabuladores() throws IOException {
+		String salida = escribir("tsv", false, movimiento("pago", "a\tb"));
+
+		assertThat(salida).isEqualTo("1\t42\t2026-02-01\tpago\t50000.25\t\"a\tb\"\r\n");
+	}
+
+	@Test
+	void neutralizaFormulas() throws IOException {
+		String salida = escribir("csv", false,
+				movimiento("=HYPERLINK(\"x\")", "+56912345678"),
+				movimiento("@SUM(A1)", "-10"));
+
+		assertThat(salida).isEqualTo(
+				"1,42,2026-02-01,\"'=HYPERLINK(\"\"x\"\")\",50000.25,'+56912345678\r\n"
+						+ "1,42,2026-02-01,'@SUM(A1),50000.25,'-10\r\n");
+	}
+
+	@Test
+	void neutralizaTabuladorORetornoInicial() throws IOException {
+		String salida = escribir("csv", false,
+				movimiento("\t=1+1", "\r=1+1"));
+
+		assertThat(salida).isEqualTo("1,42,2026-02-01,'\t=1+1,50000.25,\"'\r=1+1\"\r\n");
+	}
+
+	@Test
+	void filasLargasNoSeTruncan() throws IOException {
+		String larga = "x".repeat(5000);
+
+		assertThat(escribir("csv", false, movimiento("pago", larga)))
+				.isEqualTo("1,42,2026-02-01,pago,50000.25," + larga + "\r\n");
+	}
+
+	private static String escribir(String formato, boolean encabezado, EstadoFinancieroDTO... movimientos)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		EscritorMovimientos escritor = new EscritorMovimientos(bytes, formato);
+		if (encabezado) {
+			escritor.escribirEncabezado();
+		}
+		for (EstadoFinancieroDTO mov : movimientos) {
+			escritor.escribir(mov);
+		}
+		escritor.flush();
+		return bytes.toString(StandardCharsets.UTF_8);
+	}
+
+	private static EstadoFinancieroDTO movimiento(String transaccion, String descripcion) {
+		EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+		mov.setId(1L);
+		mov.setCuentaId(42L);
+		mov.setFecha(LocalDate.of(2026, 2, 1));
+		mov.setTransaccion(transaccion);
+		mov.setMonto(50000.25);
+		mov.setDescripcion(descripcion);
+		return mov;
+	}
+}
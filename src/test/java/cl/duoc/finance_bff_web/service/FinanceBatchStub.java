@@ -0,0 +1,233 @@
+package cl.duoc.finance_bff_web.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import cl.duoc.finance_bff_web.FinanceBffWebApplication;
+import cl.duoc.finance_bff_web.cache.AlmacenCompartido;
+import cl.duoc.finance_bff_web.cache.ResumenCache;
+import cl.duoc.finance_bff_web.kafka.InvalidacionCacheProducer;
+import cl.duoc.finance_bff_web.model.CuentaDTO;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+import cl.duoc.finance_bff_web.resilience.UltimoResumenConocido;
+import cl.duoc.finance_bff_web.security.JwtUtil;
+
+/**
+ * Stub local de finance-batch para probar el BFF con JSON, CBOR y Smile.
+ *
+ * Expone los mismos endpoints que consume FinanceWebServiceImpl:
+ * - GET /api/v1/cuentas/{id}
+ * - GET /api/v1/cuentas/{id}/transacciones[?page=N&size=M&despuesDe=X]
+ *
+ * El formato de la respuesta se elige segun el header Accept (igual que
+ * la negociacion de contenido de Spring MVC); JSON si no se pide otro.
+ * Con setSoloJson(true) simula un finance-batch sin soporte binario
+ * (ignora el Accept y responde siempre JSON). Los filtros desde/hasta se
+ * ignoran siempre y, con setIgnorarPaginacion(true), tambien page/size
+ * (se devuelve la lista completa), igual que un Core que no los soporta.
+ * despuesDe (solo movimientos con id mayor) se respeta salvo con
+ * setIgnorarDespuesDe(true); con setSinIds(true) los movimientos van sin id.
+ *
+ * Uso: java FinanceBatchStub [puerto] [movimientosPorCuenta]
+ * y configurar el BFF con backend.url=http://localhost:{puerto}/api/v1
+ */
+public class FinanceBatchStub {
+
+	static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+	static final ObjectMapper JSON_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+	static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor().build();
+	static final ObjectMapper SMILE_MAPPER = Jackson2ObjectMapperBuilder.smile().build();
+
+	private final HttpServer server;
+	private final int movimientos;
+	private volatile boolean soloJson;
+	private volatile boolean ignorarPaginacion;
+	private volatile boolean ignorarDespuesDe;
+	private volatile boolean sinIds;
+	private final AtomicInteger peticionesTransacciones = new AtomicInteger();
+	private volatile MediaType ultimoTipo;
+
+	public FinanceBatchStub(int puerto, int movimientos) throws IOException {
+		this.movimientos = movimientos;
+		this.server = HttpServer.create(new InetSocketAddress(puerto), 0);
+		this.server.createContext("/api/v1/cuentas/", this::atender);
+	}
+
+	public void iniciar() {
+		server.start();
+	}
+
+	public void detener() {
+		server.stop(0);
+	}
+
+	public int getPuerto() {
+		return server.getAddress().getPort();
+	}
+
+	public void setSoloJson(boolean soloJson) {
+		this.soloJson = soloJson;
+	}
+
+	public void setIgnorarPaginacion(boolean ignorarPaginacion) {
+		this.ignorarPaginacion = ignorarPaginacion;
+	}
+
+	public void setIgnorarDespuesDe(boolean ignorarDespuesDe) {
+		this.ignorarDespuesDe = ignorarDespuesDe;
+	}
+
+	public void setSinIds(boolean sinIds) {
+		this.sinIds = sinIds;
+	}
+
+	/**
+	 * @return Peticiones de transacciones atendidas desde el ultimo reinicio
+	 */
+	public int getPeticionesTransacciones() {
+		return peticionesTransacciones.get();
+	}
+
+	public void reiniciarPeticiones() {
+		peticionesTransacciones.set(0);
+	}
+
+	/**
+	 * Crea un FinanceWebServiceImpl que llama a este stub, con el RestTemplate
+	 * real de la aplicacion para el formato indicado.
+	 *
+	 * @param formato Valor de backend.wire-format
+	 * @return Servicio listo para usar (sin contexto de Spring)
+	 */
+	public FinanceWebServiceImpl crearServicio(String formato) {
+		return crearServicio(formato, 500);
+	}
+
+	/**
+	 * @param formato      Valor de backend.wire-format
+	 * @param tamanoPagina Valor de bff.export.page-size
+	 * @return Servicio listo para usar (sin contexto de Spring)
+	 */
+	public FinanceWebServiceImpl crearServicio(String formato, int tamanoPagina) {
+		DefaultListableBeanFactory fabrica = new DefaultListableBeanFactory();
+		ResumenCache resumenCache = new ResumenCache(60000, 100, DataSize.ofMegabytes(1), 300000,
+				fabrica.getBeanProvider(AlmacenCompartido.class),
+				fabrica.getBeanProvider(InvalidacionCacheProducer.class));
+
+		return new FinanceWebServiceImpl(crearRestTemplate(formato), new JwtUtil(), resumenCache,
+				new UltimoResumenConocido(100, DataSize.ofMegabytes(1)),
+				"http://localhost:" + getPuerto() + "/api/v1", tamanoPagina, formato);
+	}
+
+	static RestTemplate crearRestTemplate(String formato) {
+		return new FinanceBffWebApplication().restTemplate(formato, 2000, 5000);
+	}
+
+	/**
+	 * @return Content-Type de la ultima respuesta enviada
+	 */
+	public MediaType getUltimoTipo() {
+		return ultimoTipo;
+	}
+
+	private void atender(HttpExchange exchange) throws IOException {
+		String[] partes = exchange.getRequestURI().getPath().split("/");
+		// ["", "api", "v1", "cuentas", "{id}", ("transacciones")]
+		long id = Long.parseLong(partes[4]);
+		Object cuerpo = partes.length > 5 ? paginar(crearMovimientos(id, movimientos), exchange) : crearCuenta(id);
+
+		String accept = exchange.getRequestHeaders().getFirst("Accept");
+		MediaType tipo = MediaType.APPLICATION_JSON;
+		ObjectMapper mapper = JSON_MAPPER;
+		if (soloJson || accept == null) {
+			// JSON por defecto
+		} else if (accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+			tipo = MediaType.APPLICATION_CBOR;
+			mapper = CBOR_MAPPER;
+		} else if (accept.contains(SMILE.toString())) {
+			tipo = SMILE;
+			mapper = SMILE_MAPPER;
+		}
+
+		byte[] bytes = mapper.writeValueAsBytes(cuerpo);
+		ultimoTipo = tipo;
+		exchange.getResponseHeaders().set("Content-Type", tipo.toString());
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private List<EstadoFinancieroDTO> paginar(List<EstadoFinancieroDTO> lista, HttpExchange exchange) {
+		Map<String, String> query = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build()
+				.getQueryParams().toSingleValueMap();
+		peticionesTransacciones.incrementAndGet();
+		if (sinIds) {
+			lista.forEach(mov -> mov.setId(null));
+		}
+		if (!ignorarDespuesDe && query.containsKey("despuesDe")) {
+			long despuesDe = Long.parseLong(query.get("despuesDe"));
+			lista = lista.stream().filter(mov -> mov.getId() != null && mov.getId() > despuesDe).toList();
+		}
+		if (ignorarPaginacion || !query.containsKey("page") || !query.containsKey("size")) {
+			return lista;
+		}
+		int size = Integer.parseInt(query.get("size"));
+		int desde = Math.min(lista.size(), Integer.parseInt(query.get("page")) * size);
+		return lista.subList(desde, Math.min(lista.size(), desde + size));
+	}
+
+	static CuentaDTO crearCuenta(long id) {
+		CuentaDTO cuenta = new CuentaDTO();
+		cuenta.setId(id);
+		cuenta.setCuentaId(1000 + id);
+		cuenta.setNombre("Titular " + id);
+		cuenta.setSaldo(150000.0);
+		cuenta.setEdad(30);
+		cuenta.setTipo("ahorro");
+		cuenta.setInteresAplicado(2500.0);
+		return cuenta;
+	}
+
+	static List<EstadoFinancieroDTO> crearMovimientos(long cuentaId, int cantidad) {
+		List<EstadoFinancieroDTO> lista = new ArrayList<>(cantidad);
+		LocalDate fecha = LocalDate.of(2020, 1, 1);
+		for (int i = 0; i < cantidad; i++) {
+			EstadoFinancieroDTO mov = new EstadoFinancieroDTO();
+			mov.setId((long) i);
+			mov.setCuentaId(cuentaId);
+			mov.setFecha(fecha.plusDays(i));
+			mov.setTransaccion(i % 2 == 0 ? "deposito" : "retiro");
+			mov.setMonto(1000.0 + i);
+			mov.setDescripcion("Movimiento " + i);
+			lista.add(mov);
+		}
+		return lista;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int puerto = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		int movimientos = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		FinanceBatchStub stub = new FinanceBatchStub(puerto, movimientos);
+		stub.iniciar();
+		System.out.println(">> Stub de finance-batch escuchando en http://localhost:" + stub.getPuerto() + "/api/v1");
+	}
+}
@@ -0,0 +1,146 @@
+package cl.duoc.finance_bff_web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+
+/**
+ * Recorrido paginado de movimientos para la exportacion, contra
+ * FinanceBatchStub (que ignora desde/hasta, igual que un Core sin filtros).
+ *
+ * El stub genera 50 movimientos con id i y fecha 2020-01-01 + i dias.
+ * Para reanudar se pasa el id del ultimo movimiento recibido.
+ */
+class FinanceWebServiceExportTests {
+
+	private static final int MOVIMIENTOS = 50;
+	private static final int TAMANO_PAGINA = 7;
+
+	// Rango que cubre los movimientos 10..29
+	private static final LocalDate DESDE = LocalDate.of(2020, 1, 11);
+	private static final LocalDate HASTA = LocalDate.of(2020, 1, 30);
+
+	private static FinanceBatchStub stub;
+
+	private FinanceWebServiceImpl servicio;
+
+	@BeforeAll
+	static void iniciarStub() throws IOException {
+		stub = new FinanceBatchStub(0, MOVIMIENTOS);
+		stub.iniciar();
+	}
+
+	@AfterAll
+	static void detenerStub() {
+		stub.detener();
+	}
+
+	@AfterEach
+	void restaurarStub() {
+		stub.setIgnorarPaginacion(false);
+		stub.setIgnorarDespuesDe(false);
+		stub.setSinIds(false);
+		stub.reiniciarPeticiones();
+	}
+
+	@Test
+	void recorreTodasLasPaginasEnOrden() {
+		assertThat(exportar(null, null, null)).containsExactlyElementsOf(ids(0, MOVIMIENTOS));
+	}
+
+	@Test
+	void filtraLocalmenteSiElCoreIgnoraElRango() {
+		assertThat(exportar(DESDE, HASTA, null)).containsExactlyElementsOf(ids(10, 30));
+	}
+
+	@Test
+	void reanudaDespuesDelUltimoIdRecibido() {
+		assertThat(exportar(DESDE, HASTA, 14L)).containsExactlyElementsOf(ids(15, 30));
+	}
+
+	@Test
+	void reanudarDesdeCualquierFilaNoRepiteNiSaltaFilas() {
+		List<Long> completa = exportar(DESDE, HASTA, null);
+
+		for (int recibidas = 1; recibidas <= completa.size(); recibidas++) {
+			List<Long> unida = new ArrayList<>(completa.subList(0, recibidas));
+			unida.addAll(exportar(DESDE, HASTA, completa.get(recibidas - 1)));
+			assertThat(unida).as("recibidas %d", recibidas).containsExactlyElementsOf(completa);
+		}
+	}
+
+	@Test
+	void reanudarSoloPideLasPaginasRestantes() {
+		// Quedan 7 movimientos (43..49): una pagina completa y la pagina vacia que cierra
+		assertThat(exportar(null, null, 42L)).containsExactlyElementsOf(ids(43, MOVIMIENTOS));
+		assertThat(stub.getPeticionesTransacciones()).isEqualTo(2);
+	}
+
+	@Test
+	void coreQueIgnoraDespuesDeFiltraLocalmente() {
+		stub.setIgnorarDespuesDe(true);
+
+		assertThat(exportar(DESDE, HASTA, 14L)).containsExactlyElementsOf(ids(15, 30));
+	}
+
+	@Test
+	void ultimoIdMayorQueElTotalNoEntregaFilas() {
+		assertThat(exportar(null, null, MOVIMIENTOS + 10L)).isEmpty();
+	}
+
+	@Test
+	void coreSinPaginacionNoDuplicaFilas() {
+		stub.setIgnorarPaginacion(true);
+
+		assertThat(exportar(null, null, null)).containsExactlyElementsOf(ids(0, MOVIMIENTOS));
+		assertThat(exportar(DESDE, HASTA, 14L)).containsExactlyElementsOf(ids(15, 30));
+	}
+
+	@Test
+	void coreSinPaginacionNiIdsTermina() {
+		stub.setIgnorarPaginacion(true);
+		stub.setSinIds(true);
+		// La pagina repetida coincide con el tamano de pagina: sin ids solo se detecta comparandola completa
+		crearServicio(MOVIMIENTOS);
+
+		assertThat(exportar(null, null, null)).hasSize(MOVIMIENTOS);
+		assertThat(stub.getPeticionesTransacciones()).isEqualTo(2);
+	}
+
+	@Test
+	void paginaExactaTerminaConPaginaVacia() {
+		crearServicio(10);
+
+		assertThat(exportar(null, null, null)).containsExactlyElementsOf(ids(0, MOVIMIENTOS));
+	}
+
+	private List<Long> exportar(LocalDate desde, LocalDate hasta, Long despuesDe) {
+		if (servicio == null) {
+			crearServicio(TAMANO_PAGINA);
+		}
+		List<Long> ids = new ArrayList<>();
+		long entregados = servicio.recorrerMovimientos(1L, desde, hasta, despuesDe,
+				(EstadoFinancieroDTO mov) -> ids.add(mov.getId()));
+		assertThat(entregados).isEqualTo(ids.size());
+		return ids;
+	}
+
+	private void crearServicio(int tamanoPagina) {
+		servicio = stub.crearServicio("json", tamanoPagina);
+	}
+
+	private static List<Long> ids(long desde, long hasta) {
+		return LongStream.range(desde, hasta).boxed().toList();
+	}
+}
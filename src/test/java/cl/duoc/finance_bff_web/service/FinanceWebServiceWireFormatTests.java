@@ -0,0 +1,103 @@
+package cl.duoc.finance_bff_web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import cl.duoc.finance_bff_web.config.FormatoWire;
+import cl.duoc.finance_bff_web.model.ResumenWebDTO;
+
+/**
+ * FinanceWebServiceImpl y el RestTemplate real de la aplicacion contra
+ * FinanceBatchStub, con cada valor de backend.wire-format.
+ */
+class FinanceWebServiceWireFormatTests {
+
+	private static final int MOVIMIENTOS = 50;
+
+	private static FinanceBatchStub stub;
+
+	@BeforeAll
+	static void iniciarStub() throws IOException {
+		stub = new FinanceBatchStub(0, MOVIMIENTOS);
+		stub.iniciar();
+	}
+
+	@AfterAll
+	static void detenerStub() {
+		stub.detener();
+	}
+
+	@AfterEach
+	void restaurarStub() {
+		stub.setSoloJson(false);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "json", "cbor", "smile" })
+	void decodificaElFormatoNegociado(String formato) {
+		ResumenWebDTO resumen = crearServicio(formato).obtenerResumenCuenta(7L);
+
+		assertThat(stub.getUltimoTipo()).isEqualTo(FormatoWire.desde(formato).getMediaType());
+		verificarResumen(resumen, 7L);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "cbor", "smile" })
+	void usaJsonSiElBackendNoSoportaElFormatoBinario(String formato) {
+		stub.setSoloJson(true);
+
+		ResumenWebDTO resumen = crearServicio(formato).obtenerResumenCuenta(9L);
+
+		assertThat(stub.getUltimoTipo()).isEqualTo(MediaType.APPLICATION_JSON);
+		verificarResumen(resumen, 9L);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "cbor", "smile" })
+	void registraUnSoloConvertidorPorFormato(String formato) {
+		MediaType tipo = FormatoWire.desde(formato).getMediaType();
+
+		long convertidores = crearRestTemplate(formato).getMessageConverters().stream()
+				.filter(convertidor -> convertidor.getSupportedMediaTypes().contains(tipo))
+				.count();
+
+		assertThat(convertidores).isEqualTo(1);
+	}
+
+	@Test
+	void formatoDesconocidoUsaJson() {
+		assertThat(FormatoWire.desde("protobuf")).isEqualTo(FormatoWire.JSON);
+		assertThat(FormatoWire.desde("CBOR")).isEqualTo(FormatoWire.CBOR);
+	}
+
+	private static void verificarResumen(ResumenWebDTO resumen, long id) {
+		assertThat(resumen.isContingencia()).isFalse();
+		assertThat(resumen.getMensaje()).startsWith("Consulta Exitosa");
+		assertThat(resumen.getCuenta().getId()).isEqualTo(id);
+		assertThat(resumen.getCuenta().getNombre()).isEqualTo("Titular " + id);
+		assertThat(resumen.getCuenta().getSaldo()).isEqualTo(150000.0);
+		assertThat(resumen.getMovimientos()).hasSize(MOVIMIENTOS);
+		assertThat(resumen.getMovimientos().get(0).getFecha()).isEqualTo(LocalDate.of(2020, 1, 1));
+		assertThat(resumen.getMovimientos().get(MOVIMIENTOS - 1).getDescripcion())
+				.isEqualTo("Movimiento " + (MOVIMIENTOS - 1));
+	}
+
+	private static RestTemplate crearRestTemplate(String formato) {
+		return FinanceBatchStub.crearRestTemplate(formato);
+	}
+
+	private static FinanceWebServiceImpl crearServicio(String formato) {
+		return stub.crearServicio(formato);
+	}
+}
@@ -0,0 +1,78 @@
+package cl.duoc.finance_bff_web.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.duoc.finance_bff_web.model.CuentaDTO;
+import cl.duoc.finance_bff_web.model.EstadoFinancieroDTO;
+
+/**
+ * Benchmark de decodificacion de un resumen (cuenta + movimientos) en JSON, CBOR y Smile.
+ *
+ * Por cada formato mide, por resumen decodificado:
+ * - bytes en el cable (cuenta + transacciones)
+ * - tiempo de CPU del hilo
+ * - bytes asignados en el heap
+ *
+ * Deshabilitado en mvn test: solo imprime mediciones y no verifica nada. Uso:
+ *   mvn test -Dtest=WireFormatBenchmarkTests -Djunit.jupiter.conditions.deactivate=org.junit.*DisabledCondition
+ *   [-Dbenchmark.movimientos=1000] [-Dbenchmark.iteraciones=2000]
+ */
+@Disabled("Benchmark manual, ver javadoc")
+class WireFormatBenchmarkTests {
+
+	private static final TypeReference<List<EstadoFinancieroDTO>> MOVIMIENTOS = new TypeReference<>() {};
+
+	@Test
+	void decodificarResumen() throws Exception {
+		int movimientos = Integer.getInteger("benchmark.movimientos", 1000);
+		int iteraciones = Integer.getInteger("benchmark.iteraciones", 2000);
+
+		CuentaDTO cuenta = FinanceBatchStub.crearCuenta(1L);
+		List<EstadoFinancieroDTO> lista = FinanceBatchStub.crearMovimientos(1L, movimientos);
+
+		System.out.printf("Resumen con %d movimientos, %d iteraciones%n", movimientos, iteraciones);
+		System.out.printf("%-6s %12s %16s %16s%n", "fmt", "bytes", "cpu ns/resumen", "alloc B/resumen");
+		medir("json", FinanceBatchStub.JSON_MAPPER, cuenta, lista, iteraciones);
+		medir("cbor", FinanceBatchStub.CBOR_MAPPER, cuenta, lista, iteraciones);
+		medir("smile", FinanceBatchStub.SMILE_MAPPER, cuenta, lista, iteraciones);
+	}
+
+	private static void medir(String nombre, ObjectMapper mapper, CuentaDTO cuenta,
+			List<EstadoFinancieroDTO> lista, int iteraciones) throws Exception {
+		byte[] bytesCuenta = mapper.writeValueAsBytes(cuenta);
+		byte[] bytesMovimientos = mapper.writeValueAsBytes(lista);
+
+		// Calentamiento del JIT
+		long control = 0;
+		for (int i = 0; i < iteraciones; i++) {
+			control += decodificar(mapper, bytesCuenta, bytesMovimientos);
+		}
+
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long hilo = Thread.currentThread().threadId();
+		long cpuInicio = mx.getCurrentThreadCpuTime();
+		long allocInicio = mx.getThreadAllocatedBytes(hilo);
+
+		for (int i = 0; i < iteraciones; i++) {
+			control += decodificar(mapper, bytesCuenta, bytesMovimientos);
+		}
+
+		long cpu = (mx.getCurrentThreadCpuTime() - cpuInicio) / iteraciones;
+		long alloc = (mx.getThreadAllocatedBytes(hilo) - allocInicio) / iteraciones;
+		System.out.printf("%-6s %12d %16d %16d   (control=%d)%n",
+				nombre, bytesCuenta.length + bytesMovimientos.length, cpu, alloc, control);
+	}
+
+	private static long decodificar(ObjectMapper mapper, byte[] cuenta, byte[] movimientos) throws Exception {
+		CuentaDTO c = mapper.readValue(cuenta, CuentaDTO.class);
+		List<EstadoFinancieroDTO> m = mapper.readValue(movimientos, MOVIMIENTOS);
+		return c.getId() + m.size();
+	}
+}
@@ -0,0 +1,183 @@
+package cl.duoc.finance_bff_web.tls;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Clasificacion de handshakes: "reanudado" si la sesion se creo antes de
+ * empezar el handshake (getCreationTime() < inicio), "completo" si es nueva.
+ */
+class MedicionSslEngineTests {
+
+	private static final int TAMANO = 64 * 1024;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void sesionCreadaAntesDelInicioEsReanudada() throws Exception {
+		MedicionSslEngine engine = new MedicionSslEngine(delegadoQueTermina(System.currentTimeMillis() - 60_000), registry);
+
+		engine.wrap(ByteBuffer.allocate(0), ByteBuffer.allocate(TAMANO));
+
+		assertThat(handshakes("reanudado")).isEqualTo(1);
+		assertThat(handshakes("completo")).isZero();
+		assertThat(registry.get("bff.tls.handshake.duracion").tag("tipo", "reanudado").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void sesionCreadaDuranteElHandshakeEsCompleta() throws Exception {
+		MedicionSslEngine engine = new MedicionSslEngine(delegadoQueTermina(System.currentTimeMillis() + 60_000), registry);
+
+		engine.unwrap(ByteBuffer.allocate(0), ByteBuffer.allocate(TAMANO));
+
+		assertThat(handshakes("completo")).isEqualTo(1);
+		assertThat(handshakes("reanudado")).isZero();
+	}
+
+	@Test
+	void soloSeMideElHandshakeInicial() throws Exception {
+		MedicionSslEngine engine = new MedicionSslEngine(delegadoQueTermina(System.currentTimeMillis() + 60_000), registry);
+
+		engine.wrap(ByteBuffer.allocate(0), ByteBuffer.allocate(TAMANO));
+		engine.wrap(ByteBuffer.allocate(0), ByteBuffer.allocate(TAMANO));
+
+		assertThat(handshakes("completo")).isEqualTo(1);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "TLSv1.3", "TLSv1.2" })
+	void segundaConexionDelMismoClienteSeReanuda(String protocolo) throws Exception {
+		SSLContext servidor = contextoServidor(protocolo);
+		SSLContext cliente = SSLContext.getInstance(protocolo);
+		cliente.init(null, new TrustManager[] { new ConfiarEnTodo() }, null);
+
+		conectar(cliente, servidor);
+		// getCreationTime() tiene resolucion de milisegundos
+		Thread.sleep(20);
+		conectar(cliente, servidor);
+
+		assertThat(handshakes("completo")).isEqualTo(1);
+		assertThat(handshakes("reanudado")).isEqualTo(1);
+	}
+
+	private double handshakes(String tipo) {
+		var contador = registry.find("bff.tls.handshakes").tag("tipo", tipo).counter();
+		return contador == null ? 0 : contador.count();
+	}
+
+	private static SSLEngine delegadoQueTermina(long creacionSesion) throws Exception {
+		SSLEngine delegado = mock(SSLEngine.class);
+		SSLSession sesion = mock(SSLSession.class);
+		when(sesion.getCreationTime()).thenReturn(creacionSesion);
+		when(delegado.getSession()).thenReturn(sesion);
+		SSLEngineResult terminado = new SSLEngineResult(SSLEngineResult.Status.OK, HandshakeStatus.FINISHED, 0, 0);
+		when(delegado.wrap(any(ByteBuffer[].class), anyInt(), anyInt(), any(ByteBuffer.class))).thenReturn(terminado);
+		when(delegado.unwrap(any(ByteBuffer.class), any(ByteBuffer[].class), anyInt(), anyInt())).thenReturn(terminado);
+		return delegado;
+	}
+
+	private static SSLContext contextoServidor(String protocolo) throws Exception {
+		KeyStore keystore = KeyStore.getInstance("PKCS12");
+		try (InputStream in = MedicionSslEngineTests.class.getResourceAsStream("/finance-keystore.p12")) {
+			keystore.load(in, "fec4a5n5".toCharArray());
+		}
+		KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		kmf.init(keystore, "fec4a5n5".toCharArray());
+		SSLContext contexto = SSLContext.getInstance(protocolo);
+		contexto.init(kmf.getKeyManagers(), null, null);
+		return contexto;
+	}
+
+	/**
+	 * Handshake en memoria entre un SSLEngine cliente y un MedicionSslEngine servidor.
+	 */
+	private void conectar(SSLContext cliente, SSLContext servidor) throws Exception {
+		SSLEngine motorCliente = cliente.createSSLEngine("finance-bff-web", 8081);
+		motorCliente.setUseClientMode(true);
+		SSLEngine motorServidor = new MedicionSslEngine(servidor.createSSLEngine(), registry);
+		motorServidor.setUseClientMode(false);
+
+		ByteBuffer clienteAServidor = ByteBuffer.allocate(TAMANO);
+		ByteBuffer servidorACliente = ByteBuffer.allocate(TAMANO);
+		motorCliente.beginHandshake();
+		motorServidor.beginHandshake();
+		for (int i = 0; i < 100 && (negociando(motorCliente) || negociando(motorServidor)); i++) {
+			avanzar(motorCliente, clienteAServidor, servidorACliente);
+			avanzar(motorServidor, servidorACliente, clienteAServidor);
+		}
+		assertThat(negociando(motorCliente) || negociando(motorServidor)).isFalse();
+
+		// TLS 1.3: el ticket de sesion llega despues del handshake
+		servidorACliente.flip();
+		while (servidorACliente.hasRemaining()) {
+			motorCliente.unwrap(servidorACliente, ByteBuffer.allocate(TAMANO));
+			ejecutarTareas(motorCliente);
+		}
+	}
+
+	private static boolean negociando(SSLEngine engine) {
+		HandshakeStatus estado = engine.getHandshakeStatus();
+		return estado != HandshakeStatus.NOT_HANDSHAKING && estado != HandshakeStatus.FINISHED;
+	}
+
+	private static void avanzar(SSLEngine engine, ByteBuffer salida, ByteBuffer entrada) throws Exception {
+		ejecutarTareas(engine);
+		switch (engine.getHandshakeStatus()) {
+			case NEED_WRAP -> engine.wrap(ByteBuffer.allocate(0), salida);
+			case NEED_UNWRAP, NEED_UNWRAP_AGAIN -> {
+				entrada.flip();
+				engine.unwrap(entrada, ByteBuffer.allocate(TAMANO));
+				entrada.compact();
+			}
+			default -> {
+			}
+		}
+		ejecutarTareas(engine);
+	}
+
+	private static void ejecutarTareas(SSLEngine engine) {
+		Runnable tarea;
+		while ((tarea = engine.getDelegatedTask()) != null) {
+			tarea.run();
+		}
+	}
+
+	private static final class ConfiarEnTodo implements X509TrustManager {
+
+		@Override
+		public void checkClientTrusted(X509Certificate[] cadena, String tipo) {
+		}
+
+		@Override
+		public void checkServerTrusted(X509Certificate[] cadena, String tipo) {
+		}
+
+		@Override
+		public X509Certificate[] getAcceptedIssuers() {
+			return new X509Certificate[0];
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package cl.duoc.finance_bff_web.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Top-K Space-Saving alimentado por una cola sin bloqueos que se consolida
+ * fuera de la ruta de la peticion.
+ */
+class CuentasCalientesTests {
+
+	@Test
+	void registrarNoCuentaHastaConsolidar() {
+		CuentasCalientes calientes = new CuentasCalientes(3, 1, 100);
+
+		calientes.registrar(1L);
+		calientes.registrar(1L);
+
+		assertThat(calientes.getPendientes()).isEqualTo(2);
+		assertThat(calientes.getContadores()).isZero();
+
+		calientes.consolidar();
+
+		assertThat(calientes.getPendientes()).isZero();
+		assertThat(calientes.getContadores()).isEqualTo(1);
+	}
+
+	@Test
+	void ordenaPorFrecuencia() {
+		CuentasCalientes calientes = new CuentasCalientes(3, 1, 1000);
+		registrar(calientes, 7L, 50);
+		registrar(calientes, 3L, 30);
+		registrar(calientes, 9L, 20);
+		registrar(calientes, 1L, 5);
+
+		assertThat(calientes.obtenerTopK()).containsExactly(7L, 3L, 9L);
+	}
+
+	@Test
+	void cuentasFrecuentesSobrevivenAMuchasCuentasRaras() {
+		CuentasCalientes calientes = new CuentasCalientes(2, 1, 100_000);
+		for (long raro = 1000; raro < 6000; raro++) {
+			calientes.registrar(raro);
+			if (raro % 4 == 0) {
+				calientes.registrar(1L);
+				calientes.registrar(2L);
+			}
+		}
+
+		assertThat(calientes.obtenerTopK()).containsExactlyInAnyOrder(1L, 2L);
+		// Space-Saving: a lo mas 4 * K contadores sin importar las cuentas distintas
+		assertThat(calientes.getContadores()).isLessThanOrEqualTo(8);
+	}
+
+	@Test
+	void colaLlenaDescartaSinBloquear() {
+		CuentasCalientes calientes = new CuentasCalientes(3, 1, 10);
+
+		registrar(calientes, 5L, 25);
+
+		assertThat(calientes.getPendientes()).isEqualTo(10);
+		calientes.consolidar();
+		assertThat(calientes.getPendientes()).isZero();
+		registrar(calientes, 5L, 3);
+		assertThat(calientes.getPendientes()).isEqualTo(3);
+	}
+
+	@Test
+	void sembrarRespetaElOrdenDePrioridad() {
+		CuentasCalientes calientes = new CuentasCalientes(3, 1, 100);
+
+		calientes.sembrar(List.of(40L, 10L, 20L));
+
+		assertThat(calientes.obtenerTopK()).containsExactly(40L, 10L, 20L);
+	}
+
+	@Test
+	void decaerReduceALaMitadYEliminaLosCeros() {
+		CuentasCalientes calientes = new CuentasCalientes(3, 1, 100);
+		registrar(calientes, 7L, 4);
+		registrar(calientes, 8L, 1);
+		calientes.consolidar();
+
+		calientes.decaer();
+
+		assertThat(calientes.obtenerTopK()).containsExactly(7L);
+	}
+
+	@Test
+	void registrosConcurrentesNoSePierdenConCupo() throws InterruptedException {
+		CuentasCalientes calientes = new CuentasCalientes(5, 1, 100_000);
+		ExecutorService hilos = Executors.newFixedThreadPool(8);
+		CountDownLatch largada = new CountDownLatch(1);
+		for (int h = 0; h < 8; h++) {
+			long id = h;
+			hilos.execute(() -> {
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int i = 0; i < 1000 * (id + 1); i++) {
+					calientes.registrar(id);
+				}
+			});
+		}
+		largada.countDown();
+		hilos.shutdown();
+
+		assertThat(hilos.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(calientes.getPendientes()).isEqualTo(36_000);
+		assertThat(calientes.obtenerTopK()).containsExactly(7L, 6L, 5L, 4L, 3L);
+	}
+
+	private static void registrar(CuentasCalientes calientes, long id, int veces) {
+		for (int i = 0; i < veces; i++) {
+			calientes.registrar(id);
+		}
+	}
+}